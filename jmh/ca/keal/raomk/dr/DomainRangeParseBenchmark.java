@@ -0,0 +1,81 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link DomainRange#parse(String, char)} on different kinds of input. Malformed inputs throw, so they're measured
+ * with {@link DomainRange#tryParse(CharSequence, char)} as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DomainRangeParseBenchmark {
+    
+    @Param({"short", "shortUnicode", "long", "longUnicode", "malformed"})
+    private String kind;
+    
+    private String input;
+    
+    @Setup
+    public void setUp() {
+        switch (kind) {
+            case "short":
+                input = "-2 < x <= 5";
+                break;
+            case "shortUnicode":
+                input = "-2 < x ≤ 5";
+                break;
+            case "long":
+                input = clauses(" <= ", 50);
+                break;
+            case "longUnicode":
+                input = clauses(" ≤ ", 50);
+                break;
+            case "malformed":
+                input = clauses(" <= ", 25) + " or or x > 3";
+                break;
+            default:
+                throw new IllegalArgumentException(kind);
+        }
+    }
+    
+    // 0 <= x < 1.5 or 2 <= x < 3.5 or ...
+    private static String clauses(String inclusiveOperator, int count) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) input.append(" or ");
+            input.append(2*i).append(inclusiveOperator).append("x < ").append(2*i + 1.5);
+        }
+        return input.toString();
+    }
+    
+    @Benchmark
+    public Object parse() {
+        try {
+            return DomainRange.parse(input, 'x');
+        } catch (ParseException | Interval.EqualBoundsException e) {
+            return e;
+        }
+    }
+    
+    @Benchmark
+    public ParseResult<DomainRange> tryParse() {
+        return DomainRange.tryParse(input, 'x');
+    }
+    
+}
\ No newline at end of file
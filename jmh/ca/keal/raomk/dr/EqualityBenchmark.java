@@ -0,0 +1,71 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checking a submitted {@link DomainRange} against many stored answers, like the grading service does. The answers
+ * are all the same shape as the submission and only differ in their last bound, which is the worst case for comparing
+ * the bounds one by one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EqualityBenchmark {
+    
+    private static final int NUM_ANSWERS = 100;
+    private static final int NUM_CLAUSES = 20;
+    
+    private DomainRange submission;
+    private DomainRange[] answers;
+    
+    @Setup
+    public void setUp() {
+        submission = withLastBound(NUM_CLAUSES * 10 + 5);
+        answers = new DomainRange[NUM_ANSWERS];
+        for (int i = 0; i < NUM_ANSWERS; i++) {
+            answers[i] = withLastBound(NUM_CLAUSES * 10 + 6 + i);
+        }
+    }
+    
+    // 0 < x < 5 or 10 < x < 15 or ... or n < x < last
+    private static DomainRange withLastBound(double last) {
+        Interval[] intervals = new Interval[NUM_CLAUSES];
+        for (int i = 0; i < NUM_CLAUSES; i++) {
+            intervals[i] = new Interval(10*i, false, i == NUM_CLAUSES - 1 ? last : 10*i + 5, false);
+        }
+        return new DomainRange(intervals);
+    }
+    
+    @Benchmark
+    public int matchAgainstAnswers() {
+        int matches = 0;
+        for (DomainRange answer : answers) {
+            if (submission.equals(answer)) matches++;
+        }
+        return matches;
+    }
+    
+    @Benchmark
+    public int hashCodes() {
+        int hash = 0;
+        for (DomainRange answer : answers) {
+            hash += answer.hashCode();
+        }
+        return hash;
+    }
+    
+}
\ No newline at end of file
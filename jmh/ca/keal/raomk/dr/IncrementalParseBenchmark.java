@@ -0,0 +1,63 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to validate one keystroke in a long domain/range: the player is typing a digit onto the number at the end of
+ * the middle clause, which alternates between two lengths. Compares {@link IncrementalDomainRangeParser} against
+ * parsing the whole input again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalParseBenchmark {
+    
+    @Param({"10", "50", "200"})
+    private int numClauses;
+    
+    private String[] keystrokes;
+    private int keystroke;
+    private IncrementalDomainRangeParser parser;
+    
+    @Setup
+    public void setUp() {
+        StringBuilder before = new StringBuilder();
+        StringBuilder after = new StringBuilder();
+        for (int i = 0; i < numClauses; i++) {
+            String separator = i > 0 ? " or " : "";
+            String clause = (2*i) + " <= x < " + (2*i + 1);
+            before.append(separator).append(clause);
+            after.append(separator).append(clause).append(i == numClauses / 2 ? "5" : "");
+        }
+        keystrokes = new String[] {before.toString(), after.toString()};
+        parser = new IncrementalDomainRangeParser('x');
+    }
+    
+    @Benchmark
+    public ParseResult<DomainRange> incremental() {
+        keystroke = 1 - keystroke;
+        return parser.parse(keystrokes[keystroke]);
+    }
+    
+    @Benchmark
+    public ParseResult<DomainRange> full() {
+        keystroke = 1 - keystroke;
+        return DomainRange.tryParse(keystrokes[keystroke], 'x');
+    }
+    
+}
\ No newline at end of file
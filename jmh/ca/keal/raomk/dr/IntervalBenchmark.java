@@ -0,0 +1,92 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The small operations on {@link Interval}s and {@link DomainRange}s: overlaps, combine, equals, hashCode and
+ * toString.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntervalBenchmark {
+    
+    private Interval interval;
+    private Interval overlapping;
+    private Interval touching;
+    private Interval equal;
+    
+    private DomainRange domainRange;
+    private DomainRange equalDomainRange;
+    
+    @Setup
+    public void setUp() throws ParseException {
+        interval = new Interval(-2, false, 5, true);
+        overlapping = new Interval(3, true, 9, false);
+        touching = new Interval(5, false, 7, false); // only the inclusive 5 joins them
+        equal = new Interval(5, true, -2, false);
+        
+        domainRange = DomainRange.parse("x < -4.5 or 20 <= x or -1 < x ≤ 2 or 3 < x < 4 or 5 <= x <= 6", 'x');
+        equalDomainRange = DomainRange.parse("5 <= x <= 6 or 3 < x < 4 or -1 < x ≤ 2 or 20 <= x or x < -4.5", 'x');
+    }
+    
+    @Benchmark
+    public boolean intervalOverlaps() {
+        return interval.overlaps(overlapping);
+    }
+    
+    @Benchmark
+    public boolean intervalOverlapsAtEdge() {
+        return interval.overlaps(touching);
+    }
+    
+    @Benchmark
+    public Interval intervalCombine() {
+        return interval.combine(overlapping);
+    }
+    
+    @Benchmark
+    public boolean intervalEquals() {
+        return interval.equals(equal);
+    }
+    
+    @Benchmark
+    public int intervalHashCode() {
+        return interval.hashCode();
+    }
+    
+    @Benchmark
+    public String intervalToString() {
+        return interval.toString();
+    }
+    
+    @Benchmark
+    public boolean domainRangeEquals() {
+        return domainRange.equals(equalDomainRange);
+    }
+    
+    @Benchmark
+    public int domainRangeHashCode() {
+        return domainRange.hashCode();
+    }
+    
+    @Benchmark
+    public String domainRangeToString() {
+        return domainRange.toString();
+    }
+    
+}
\ No newline at end of file
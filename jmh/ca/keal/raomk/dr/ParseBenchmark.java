@@ -0,0 +1,82 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of parsing a mix of inputs that is 80% invalid - what the parser sees while the player is still typing.
+ * Compares {@link DomainRange#tryParse(CharSequence, char)} against catching the exceptions from
+ * {@link DomainRange#parse(String, char)}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseBenchmark {
+    
+    private static final int NUM_INPUTS = 1000;
+    
+    private static final String[] ANSWERS = {
+            "x > 3", "-2 < x < 5", "y <= 10", "x < -4.5 or 20 <= x or -1 < x ≤ 2", "0 ≤ x ≤ 100", "y > 0 or y < -7",
+            "12.5 >= x > -12.5", "x < 0 or 1 < x < 2 or x > 3",
+    };
+    
+    private String[] inputs;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(2017);
+        inputs = new String[NUM_INPUTS];
+        for (int i = 0; i < NUM_INPUTS; i++) {
+            String answer = ANSWERS[random.nextInt(ANSWERS.length)];
+            if (random.nextInt(5) == 0) {
+                inputs[i] = answer.replace('y', 'x');
+            } else if (random.nextBoolean()) {
+                // Half-typed answer; ends with an operator or "or" so it's never valid
+                String prefix = answer.substring(0, random.nextInt(answer.length() - 1) + 1);
+                inputs[i] = prefix + (random.nextBoolean() ? " <" : " or");
+            } else {
+                // Typo
+                char[] chars = answer.replace('y', 'x').toCharArray();
+                chars[random.nextInt(chars.length)] = "q*=x<".charAt(random.nextInt(5));
+                inputs[i] = new String(chars) + " or";
+            }
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_INPUTS)
+    public void tryParse(Blackhole blackhole) {
+        for (String input : inputs) {
+            blackhole.consume(DomainRange.tryParse(input, 'x'));
+        }
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(NUM_INPUTS)
+    public void parseAndCatch(Blackhole blackhole) {
+        for (String input : inputs) {
+            try {
+                blackhole.consume(DomainRange.parse(input, 'x'));
+            } catch (ParseException | Interval.EqualBoundsException e) {
+                blackhole.consume(e);
+            }
+        }
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package ca.keal.raomk.dr;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The {@link DomainRange} constructor, which sorts the intervals and merges the ones that overlap. Half of the
+ * intervals overlap another one, and they're given in a random order.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SimplifyBenchmark {
+    
+    @Param({"10", "1000", "100000"})
+    private int numIntervals;
+    
+    private List<Interval> intervals;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(11);
+        Interval[] array = new Interval[numIntervals];
+        for (int i = 0; i < numIntervals; i++) {
+            double lower = 10 * (i / 2) + (i % 2) * 3; // every other one overlaps the one before
+            array[i] = new Interval(lower, random.nextBoolean(), lower + 5, random.nextBoolean());
+        }
+        for (int i = array.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            Interval temp = array[i];
+            array[i] = array[j];
+            array[j] = temp;
+        }
+        intervals = Arrays.asList(array);
+    }
+    
+    @Benchmark
+    public DomainRange construct() {
+        return new DomainRange(intervals);
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,210 @@
+package ca.keal.raomk;
+
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.DoubleConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the images under /assets. {@link #preload} decodes all of them at once on background threads, so classes
+ * with images in static fields get them from the cache instead of each decoding their own on the JavaFX application
+ * thread the first time they're used. Images that weren't preloaded are loaded when they're asked for.
+ * <p>
+ * If the build packed the assets into an atlas (the packAtlas task), only the atlas is decoded, and the assets are cut
+ * out of it. The atlas also has copies of the images already scaled to the sizes they're drawn at.
+ */
+public final class AssetManager {
+    
+    private static final Logger LOGGER = Logger.getLogger(AssetManager.class.getName());
+    
+    /** Every image under /assets, without the .png */
+    static final List<String> ASSETS = Collections.unmodifiableList(Arrays.asList(
+            "cow/din",
+            "cow/normal",
+            "cow/spider",
+            "cow/surf",
+            "fence_arrow/down_exclusive",
+            "fence_arrow/down_inclusive",
+            "fence_arrow/left_exclusive",
+            "fence_arrow/left_inclusive",
+            "fence_arrow/right_exclusive",
+            "fence_arrow/right_inclusive",
+            "fence_arrow/up_exclusive",
+            "fence_arrow/up_inclusive",
+            "fence_horizontal",
+            "fence_vertical",
+            "flowers",
+            "flowers2",
+            "gumdrop_joe",
+            "play_again",
+            "win"
+    ));
+    
+    private static final String ATLAS_IMAGE = "/atlas/atlas.png";
+    private static final String ATLAS_INDEX = "/atlas/atlas.properties";
+    
+    private static final Map<String, Image> IMAGES = new ConcurrentHashMap<>();
+    
+    // The copies scaled at build time, by original image and then by size
+    private static final Map<Image, Map<Long, Image>> PRESCALED = Collections.synchronizedMap(new IdentityHashMap<>());
+    
+    private AssetManager() {}
+    
+    /** The image at /assets/{path}.png. Loads it if it isn't loaded yet. */
+    public static Image get(@NonNull String path) {
+        Image image = IMAGES.get(path);
+        if (image != null) return image;
+        
+        // Decoded outside the map, so loading one image doesn't hold up the others. If two threads load the same one,
+        // whichever finishes first wins and both get that.
+        image = load(path);
+        Image loaded = IMAGES.putIfAbsent(path, image);
+        return loaded == null ? image : loaded;
+    }
+    
+    /** The copy of {@code image} scaled to width by height at build time, or null if there isn't one. */
+    public static Image getPrescaled(@NonNull Image image, int width, int height) {
+        Map<Long, Image> sizes = PRESCALED.get(image);
+        return sizes == null ? null : sizes.get(sizeKey(width, height));
+    }
+    
+    /**
+     * Start loading every asset in the background: from the atlas if there is one, otherwise one at a time on as many
+     * threads as there are processors. {@code progress} is given the fraction loaded so far after each one, on
+     * whichever thread loaded it. The future completes once they're all loaded, or exceptionally if any couldn't be
+     * found; anything not loaded is loaded when it's asked for instead.
+     */
+    public static CompletableFuture<Void> preload(@NonNull DoubleConsumer progress) {
+        long start = System.nanoTime();
+        Map<String, Long> nanos = new ConcurrentHashMap<>();
+        CompletableFuture<Void> loading = AssetManager.class.getResource(ATLAS_INDEX) != null
+                ? preloadAtlas(progress, nanos) : preloadEach(progress, nanos);
+        
+        return loading.whenComplete((result, error) -> {
+            if (error != null) {
+                LOGGER.log(Level.WARNING, "Couldn't preload every asset", error);
+            }
+            LOGGER.info(timings(System.nanoTime() - start, nanos));
+        });
+    }
+    
+    private static CompletableFuture<Void> preloadEach(DoubleConsumer progress, Map<String, Long> nanos) {
+        ExecutorService pool = newPool(Runtime.getRuntime().availableProcessors());
+        AtomicInteger loaded = new AtomicInteger();
+        List<CompletableFuture<Void>> futures = new ArrayList<>(ASSETS.size());
+        for (String path : ASSETS) {
+            futures.add(CompletableFuture.runAsync(() -> {
+                long assetStart = System.nanoTime();
+                Image image = get(path);
+                nanos.put(path, System.nanoTime() - assetStart);
+                if (image.isError()) {
+                    LOGGER.log(Level.WARNING, "Couldn't decode asset " + path, image.getException());
+                }
+                progress.accept((double) loaded.incrementAndGet() / ASSETS.size());
+            }, pool));
+        }
+        pool.shutdown(); // the threads stop once they're done
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
+    }
+    
+    private static CompletableFuture<Void> preloadAtlas(DoubleConsumer progress, Map<String, Long> nanos) {
+        ExecutorService pool = newPool(1);
+        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> {
+            Properties index = new Properties();
+            try (InputStream in = AssetManager.class.getResourceAsStream(ATLAS_INDEX)) {
+                index.load(in);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            
+            long atlasStart = System.nanoTime();
+            Image atlas = new Image(ATLAS_IMAGE);
+            nanos.put("atlas", System.nanoTime() - atlasStart);
+            if (atlas.isError()) {
+                throw new IllegalStateException("Couldn't decode the asset atlas", atlas.getException());
+            }
+            
+            // The originals first, so the scaled copies can be found from the images that are handed out
+            List<String> names = new ArrayList<>(index.stringPropertyNames());
+            names.sort(Comparator.comparing((String name) -> name.contains("@")).thenComparing(name -> name));
+            for (int i = 0; i < names.size(); i++) {
+                long assetStart = System.nanoTime();
+                cut(atlas.getPixelReader(), names.get(i), index.getProperty(names.get(i)));
+                nanos.put(names.get(i), System.nanoTime() - assetStart);
+                progress.accept((double) (i + 1) / names.size());
+            }
+        }, pool);
+        pool.shutdown();
+        return future;
+    }
+    
+    // Copy the asset out of the atlas. Names are like cow/normal, or cow/normal@40x32 for a scaled copy, and bounds
+    // are x,y,width,height in the atlas.
+    private static void cut(PixelReader atlas, String name, String bounds) {
+        String[] parts = bounds.split(",");
+        Image image = new WritableImage(atlas, Integer.parseInt(parts[0].trim()), Integer.parseInt(parts[1].trim()),
+                Integer.parseInt(parts[2].trim()), Integer.parseInt(parts[3].trim()));
+        
+        int at = name.indexOf('@');
+        if (at < 0) {
+            IMAGES.putIfAbsent(name, image);
+            return;
+        }
+        
+        Image original = IMAGES.get(name.substring(0, at));
+        if (original == null) return;
+        String[] size = name.substring(at + 1).split("x");
+        PRESCALED.computeIfAbsent(original, key -> new ConcurrentHashMap<>())
+                .put(sizeKey(Integer.parseInt(size[0]), Integer.parseInt(size[1])), image);
+    }
+    
+    private static long sizeKey(int width, int height) {
+        return ((long) width << 32) | (height & 0xffffffffL);
+    }
+    
+    private static ExecutorService newPool(int threads) {
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "asset-loader");
+            thread.setDaemon(true); // don't keep the game open
+            return thread;
+        });
+    }
+    
+    // e.g. "Loaded 19 assets in 45 ms: cow/normal 12 ms, win 9 ms, ..." - slowest first
+    private static String timings(long totalNanos, Map<String, Long> nanos) {
+        StringBuilder message = new StringBuilder("Loaded ").append(nanos.size()).append(" assets in ")
+                .append(totalNanos / 1_000_000).append(" ms:");
+        nanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> message.append(' ').append(entry.getKey()).append(' ')
+                        .append(entry.getValue() / 1_000_000).append(" ms,"));
+        message.setLength(message.length() - 1);
+        return message.toString();
+    }
+    
+    // Decodes on the calling thread, which can be any thread
+    private static Image load(String path) {
+        return new Image("/assets/" + path + ".png");
+    }
+    
+}
\ No newline at end of file
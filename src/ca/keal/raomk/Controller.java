@@ -1,19 +1,11 @@
 package ca.keal.raomk;
 
 import ca.keal.raomk.dr.DomainRange;
-import ca.keal.raomk.dr.Interval;
-import ca.keal.raomk.dr.ParseException;
+import ca.keal.raomk.dr.DomainRangeCache;
+import ca.keal.raomk.dr.IncrementalDomainRangeParser;
+import ca.keal.raomk.dr.ParseResult;
 import ca.keal.raomk.level.Level;
-import ca.keal.raomk.level.Level0;
-import ca.keal.raomk.level.Level1;
-import ca.keal.raomk.level.Level2;
-import ca.keal.raomk.level.Level3;
-import ca.keal.raomk.level.Level4;
-import ca.keal.raomk.level.Level5;
-import ca.keal.raomk.level.Level6;
-import ca.keal.raomk.level.Level7;
-import ca.keal.raomk.level.Level8;
-import ca.keal.raomk.level.Level9;
+import ca.keal.raomk.level.LevelRegistry;
 import ca.keal.raomk.ranch.Ranch;
 import javafx.animation.Interpolator;
 import javafx.animation.PathTransition;
@@ -39,6 +31,9 @@ public class Controller {
     // padding between the canvases and the D/R grid
     private static final int CANVAS_DRGRID_PADDING = 20;
     
+    // how much one unit of scrolling zooms by, as a power of e
+    private static final double SCROLL_ZOOM_SPEED = 0.005;
+    
     // for signifying parsing errors on the text boxes
     private static final PseudoClass ERROR_CLASS = PseudoClass.getPseudoClass("error");
     
@@ -58,20 +53,13 @@ public class Controller {
     
     private Ranch ranch;
     
-    private Level[] levels = {
-            new Level0(),
-            new Level1(),
-            new Level2(),
-            new Level3(),
-            new Level4(),
-            new Level5(),
-            new Level6(),
-            new Level7(),
-            new Level8(),
-            new Level9(),
-    };
+    private final LevelRegistry levels = LevelRegistry.load(); // each level is only made when it's needed
     private int levelNum;
     
+    // for validating the text boxes as the player types
+    private final IncrementalDomainRangeParser domainParser = new IncrementalDomainRangeParser('x');
+    private final IncrementalDomainRangeParser rangeParser = new IncrementalDomainRangeParser('y');
+    
     // for dragging
     private double startDragX;
     private double startDragY;
@@ -79,9 +67,10 @@ public class Controller {
     @FXML
     public void initialize() {
         setupExpandNodes();
+        victoryImg.setImage(Utils.getImageAsset("win"));
         ranch = new Ranch(this::restart, layerBg, layerCows, layerFences, layerGumdropJoe);
         
-        // Allow dragging the ranch
+        // Allow dragging the ranch, and zooming it with the scroll wheel or by pinching
         for (Canvas layer : new Canvas[] {layerBg, layerCows, layerFences, layerGumdropJoe}) {
             layer.setOnMousePressed(event -> {
                 startDragX = event.getScreenX();
@@ -94,8 +83,22 @@ public class Controller {
                 startDragY = event.getScreenY();
                 event.consume();
             });
+            layer.setOnScroll(event -> {
+                ranch.zoomBy(Math.exp(event.getDeltaY() * SCROLL_ZOOM_SPEED), event.getX(), event.getY());
+                event.consume();
+            });
+            layer.setOnZoom(event -> {
+                ranch.zoomBy(event.getZoomFactor(), event.getX(), event.getY());
+                event.consume();
+            });
         }
         
+        // Validate and show the fences as the player types; victory is only checked once they press enter
+        domainTextBox.textProperty().addListener((observable, oldText, text) ->
+                validateLive(domainTextBox, domainParser, ranch::setDomain));
+        rangeTextBox.textProperty().addListener((observable, oldText, text) ->
+                validateLive(rangeTextBox, rangeParser, ranch::setRange));
+        
         restart();
     }
     
@@ -105,23 +108,27 @@ public class Controller {
     }
     
     private void startLevel() {
-        ranch.clearCows();
-        ranch.setDomain(null);
-        ranch.setRange(null);
-        ranch.gumdropJoeClear();
-        ranch.clearGumdropJoeQueue();
-        domainTextBox.setText("");
-        rangeTextBox.setText("");
-        
-        if (levelNum >= levels.length) {
-            // Last level has been beaten: show the play again button
-            ranch.gumdropJoeQueue(false, "Good golly oh my, all the levels you've won! Click below to play again if " 
-                    + "you'd like some more math fun.");
-            ranch.activatePlayAgainButton();
-            return;
-        }
-        
-        levels[levelNum].init(ranch);
+        // Clearing the last level and setting up this one is only drawn once, at the end
+        ranch.batch(() -> {
+            ranch.clearCows();
+            ranch.setDomain(null);
+            ranch.setRange(null);
+            ranch.gumdropJoeClear();
+            ranch.clearGumdropJoeQueue();
+            domainTextBox.setText("");
+            rangeTextBox.setText("");
+            
+            if (levelNum >= levels.size()) {
+                // Last level has been beaten: show the play again button
+                ranch.gumdropJoeQueue(false, "Good golly oh my, all the levels you've won! Click below to play again " 
+                        + "if you'd like some more math fun.");
+                ranch.activatePlayAgainButton();
+                return;
+            }
+            
+            levels.get(levelNum).init(ranch);
+            levels.warm(levelNum + 1); // ready by the time this one's beaten
+        });
     }
     
     @FXML
@@ -143,21 +150,39 @@ public class Controller {
             return;
         }
         
+        ParseResult<DomainRange> result = DomainRangeCache.SHARED.tryParse(textBox.getText(), var);
+        if (!result.isSuccess()) {
+            updater.accept(null);
+            textBox.pseudoClassStateChanged(ERROR_CLASS, true);
+            return;
+        }
+        
         try {
-            updater.accept(DomainRange.parse(textBox.getText(), var));
+            updater.accept(result.getValue());
             textBox.pseudoClassStateChanged(ERROR_CLASS, false);
             checkVictory();
-        } catch (ParseException | Interval.EqualBoundsException e) {
-            updater.accept(null);
-            textBox.pseudoClassStateChanged(ERROR_CLASS, true);
-        } catch (ArrayIndexOutOfBoundsException e) {
+        } catch (IndexOutOfBoundsException e) {
             // checkVictory() threw because we're past the last level, it's fine so ignore it
         }
     }
     
+    private void validateLive(TextField textBox, IncrementalDomainRangeParser parser,
+                              Consumer<DomainRange> updater) {
+        if (textBox.getText().isEmpty()) {
+            updater.accept(null);
+            textBox.pseudoClassStateChanged(ERROR_CLASS, false);
+            return;
+        }
+        
+        ParseResult<DomainRange> result = parser.parse(textBox.getText());
+        updater.accept(result.getValue()); // null if it didn't parse
+        textBox.pseudoClassStateChanged(ERROR_CLASS, !result.isSuccess());
+    }
+    
     private void checkVictory() {
-        if (areDRsEqual(ranch.getDomain(), levels[levelNum].getVictoryDomain())
-                && areDRsEqual(ranch.getRange(), levels[levelNum].getVictoryRange())) {
+        Level level = levels.get(levelNum);
+        if (areDRsEqual(ranch.getDomain(), level.getVictoryDomain())
+                && areDRsEqual(ranch.getRange(), level.getVictoryRange())) {
             // Victory - animate/show image, wait for 3 seconds, then unanimate/hide image and proceed
             
             // In animation - come up from bottom and overshoot
@@ -1,15 +1,24 @@
 package ca.keal.raomk;
 
 import javafx.application.Application;
+import javafx.application.Platform;
 import javafx.fxml.FXMLLoader;
 import javafx.scene.Parent;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class Main extends Application {
     
+    private static final Logger LOGGER = Logger.getLogger(Main.class.getName());
+    
     // static width and height because it's easier
     public static final int WIDTH = 800;
     public static final int HEIGHT = 600;
@@ -21,15 +30,52 @@ public class Main extends Application {
     }
     
     @Override
-    public void start(Stage primaryStage) throws IOException {
-        Parent root = FXMLLoader.load(getClass().getResource("/main.fxml"));
-        Scene scene = new Scene(root, WIDTH, HEIGHT);
-        
+    public void start(Stage primaryStage) {
         primaryStage.setTitle(APP_NAME);
-        primaryStage.setScene(scene);
         primaryStage.setResizable(false);
+        
+        // Show a splash screen while the images load in the background, then the game once they're ready
+        ProgressBar progress = new ProgressBar(0);
+        primaryStage.setScene(new Scene(new StackPane(progress), WIDTH, HEIGHT));
         primaryStage.sizeToScene();
         primaryStage.show();
+        
+        AssetManager.preload(loaded -> Platform.runLater(() -> progress.setProgress(loaded)))
+                .whenComplete((result, error) -> Platform.runLater(() -> {
+                    if (error == null) {
+                        showGame(primaryStage);
+                    } else {
+                        // Unwrap the CompletionException to get at what actually went wrong
+                        fail(primaryStage, "Couldn't load the game's images.",
+                                error instanceof CompletionException && error.getCause() != null
+                                        ? error.getCause() : error);
+                    }
+                }));
+    }
+    
+    private void showGame(Stage primaryStage) {
+        Parent root;
+        try {
+            root = FXMLLoader.load(getClass().getResource("/main.fxml"));
+        } catch (IOException e) {
+            fail(primaryStage, "Couldn't load the game.", e);
+            return;
+        }
+        
+        primaryStage.setScene(new Scene(root, WIDTH, HEIGHT));
+        primaryStage.sizeToScene();
+    }
+    
+    // Show what went wrong over the splash screen, and quit once it's closed
+    private static void fail(Stage primaryStage, String message, Throwable error) {
+        LOGGER.log(Level.SEVERE, message, error);
+        
+        Alert alert = new Alert(Alert.AlertType.ERROR, message + "\n\n" + error);
+        alert.initOwner(primaryStage);
+        alert.setTitle(APP_NAME);
+        alert.setHeaderText(null);
+        alert.showAndWait();
+        Platform.exit();
     }
     
 }
\ No newline at end of file
@@ -8,8 +8,9 @@ public final class Utils {
         return Math.abs(a - b) < 0.005;
     }
     
+    /** The image at /assets/{path}.png, from the {@link AssetManager}. */
     public static Image getImageAsset(String path) {
-        return new Image("/assets/" + path + ".png");
+        return AssetManager.get(path);
     }
     
 }
\ No newline at end of file
@@ -4,42 +4,46 @@ import lombok.EqualsAndHashCode;
 import lombok.Getter;
 import lombok.NonNull;
 
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
+import java.util.AbstractSet;
+import java.util.BitSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 /**
  * Represents a domain or a range. This differs from {@link Interval} in that a domain/range can have multiple
  * intervals joined by "or" clauses. Immutable.
+ * <p>
+ * The intervals are kept in a canonical form (see {@link IntervalSet}) with a fingerprint worked out when it's made,
+ * so {@link #equals(Object)} and {@link #hashCode()} are O(1) except when two DomainRanges really are equal.
  */
 @EqualsAndHashCode
 public class DomainRange {
     
-    private static final String LEGAL_TOKENS_REGEX = "<|≤|<=|>|≥|>=|or";
-    
-    /** The list of intervals or'd together */
-    @Getter private final Set<Interval> intervals;
+    /** The intervals or'd together */
+    @Getter private final IntervalSet intervalSet;
     
     public DomainRange(List<Interval> intervals) {
-        simplifyIntervalList(intervals);
-        this.intervals = new HashSet<>(intervals);
+        intervalSet = IntervalSet.of(intervals);
     }
     
     public DomainRange(Interval... intervals) {
-        this(Arrays.stream(intervals).collect(Collectors.toList()));
+        intervalSet = IntervalSet.of(intervals);
+    }
+    
+    public DomainRange(@NonNull IntervalSet intervalSet) {
+        this.intervalSet = intervalSet;
     }
     
     /**
      * Parses a DomainRange. This is like {@link #parse(String, char)}, but for when the input is constant.
      * This method simply does not throw any checked exceptions, instead wrapping them in a RuntimeException
-     * since the input should be determined not to have any errors.
+     * since the input should be determined not to have any errors. Goes through {@link DomainRangeCache#SHARED}.
      */
     public static DomainRange parseStatic(String input, char var) {
         try {
-            return parse(input, var);
+            return parseCached(input, var);
         } catch (ParseException | Interval.EqualBoundsException e) {
             System.err.println("Error in static parse of DomainRange");
             e.printStackTrace();
@@ -61,92 +65,132 @@ public class DomainRange {
      * @throws Interval.EqualBoundsException if any interval has equal bounds (ex. 3 < x < 3).
      */
     public static DomainRange parse(String input, char var) throws ParseException, Interval.EqualBoundsException {
-        List<String> tokens = tokenize(input);
-        
-        // Try to find illegal tokens - any not <, <=, >, >=, &le;, &ge;, number, var, or
-        List<String> illegals = tokens.stream()
-                .filter(token -> !(token.matches(LEGAL_TOKENS_REGEX))) // any always-legal token
-                .filter(token -> !(token.equals(String.valueOf(var)))) // the variable
-                .filter(token -> !(token.matches("-?\\d+(\\.\\d+)?"))) // number
-                .collect(Collectors.toList());
-        if (illegals.size() > 0) {
-            throw new ParseException("Illegal tokens: " + illegals.stream().reduce((t1, t2) -> t1 + ", " + t2));
-        }
-        
-        // All tokens can now be assumed to be legal
-        // Separate into intervals (joined together by "or")
-        List<List<String>> intervalsTokens = new ArrayList<>();
-        int firstOr = tokens.indexOf("or");
-        while (firstOr != -1) { // while there are "or"s in the list
-            if (firstOr == 0 || firstOr == tokens.size()) {
-                throw new ParseException("Extraneous \"or\"");
-            } else {
-                // put tokens before "or" into a new list, put tokens after "or" back into tokens
-                intervalsTokens.add(tokens.subList(0, firstOr));
-                tokens = tokens.subList(firstOr + 1, tokens.size());
-            }
-            firstOr = tokens.indexOf("or");
-        }
-        intervalsTokens.add(tokens);
-        
-        // Apparently ParseException and EqualBoundsException can't be thrown from within a lambda,
-        // so we can't use streaming here *sigh*
-        List<Interval> intervals = new ArrayList<>();
-        for (List<String> intervalTokens : intervalsTokens) {
-            intervals.add(Interval.parse(intervalTokens, var));
-        }
-        return new DomainRange(intervals);
+        return tryParse(input, var).getOrThrow();
     }
     
     /**
-     * Split input into:
-     * - strings of contiguous alphabetical characters (i.e. [a-zA-Z]+)
-     * - strings of contiguous numerical characters (i.e. [0-9\\.\\-]+)
-     * - strings of single characters of any not in these
-     * then remove all whitespace-only strings
+     * Parse a {@link DomainRange} like {@link #parse(String, char)}, but never throw - a failure is returned instead,
+     * with the reason and the character offset it happened at. Use this when most inputs are expected to be invalid,
+     * e.g. while the player is still typing.
      */
-    private static List<String> tokenize(@NonNull String input) {
-        // Split:
-        // between [a-zA-Z], [0-9.\\-] or vice versa
-        // any before or after [^a-zA-Z0-9.\\-]
-        String[] split = input.split(
-                "(?<=[a-zA-Z])(?=[0-9.\\-])" // between alphabet and number
-                + "|(?<=[0-9.\\-])(?=[a-zA-Z])" // between number and alphabet
-                + "|(?<=[a-zA-Z0-9.\\-\\s])(?=[^a-zA-Z0-9.\\-])" // between non-symbol/whitespace and symbol
-                + "|(?<=[^a-zA-Z0-9.\\-])(?=[a-zA-Z0-9.\\-\\s])"); // between symbol and non-symbol/whitespace
-        
-        
-        // Filter out whitespace
-        // We don't need to trim because the regex separates all whitespace
-        return Arrays.stream(split).filter(str -> !str.matches("^\\s*$")).collect(Collectors.toList());
-    }
-    
-    // Simplify the intervals - if any overlap, merge them
-    private static void simplifyIntervalList(List<Interval> intervals) {
-        for (int i = 0; i < intervals.size() - 1; i++) {
-            Interval interval1 = intervals.get(i);
-            for (int j = i + 1; j < intervals.size(); j++) {
-                Interval interval2 = intervals.get(j);
-                if (interval1.overlaps(interval2)) {
-                    // remove interval1 and interval2 and insert combined version in interval1's place
-                    Interval combined = interval1.combine(interval2);
-                    intervals.remove(j);
-                    intervals.remove(i);
-                    intervals.add(i, combined);
-                    interval1 = combined;
-                    j--; // twiddle the index in order to check all intervals
-                }
-            }
-        }
+    public static ParseResult<DomainRange> tryParse(@NonNull CharSequence input, char var) {
+        return DomainRangeParser.parse(input, var);
+    }
+    
+    /**
+     * Parse a {@link DomainRange} like {@link #parse(String, char)}, but look it up in
+     * {@link DomainRangeCache#SHARED} first. DomainRanges are immutable, so the same instance may be returned for
+     * the same input.
+     */
+    public static DomainRange parseCached(String input, char var)
+            throws ParseException, Interval.EqualBoundsException {
+        return DomainRangeCache.SHARED.parse(input, var);
+    }
+    
+    /** A 64-bit hash of this domain/range. Equal DomainRanges have equal fingerprints. See {@link IntervalSet}. */
+    public long getFingerprint() {
+        return intervalSet.getFingerprint();
+    }
+    
+    /** Whether {@code number} is in this domain/range. O(log n) in the number of intervals. */
+    public boolean contains(double number) {
+        return intervalSet.contains(number);
+    }
+    
+    /**
+     * Check whether each of {@code numbers} is in this domain/range, putting the answers in {@code out}. This is
+     * O(n + m) if {@code numbers} is sorted. See {@link IntervalSet#contains(double[], boolean[])}.
+     */
+    public void contains(double[] numbers, boolean[] out) {
+        intervalSet.contains(numbers, out);
+    }
+    
+    /** Check whether each of {@code numbers} is in this domain/range - bit i is set if numbers[i] is. */
+    public BitSet contains(double[] numbers) {
+        return intervalSet.contains(numbers);
+    }
+    
+    /** Everything in this domain/range or {@code other}. O(n + m). */
+    public DomainRange union(@NonNull DomainRange other) {
+        return new DomainRange(intervalSet.union(other.intervalSet));
+    }
+    
+    /**
+     * Everything in both this domain/range and {@code other}. O(n + m). Since an interval can't be a single point,
+     * any single points in the result are left out.
+     */
+    public DomainRange intersect(@NonNull DomainRange other) {
+        return new DomainRange(intervalSet.intersect(other.intervalSet));
+    }
+    
+    /**
+     * Everything in this domain/range but not in {@code other}. O(n + m). Since an interval can't be a single point,
+     * any single points in the result are left out.
+     */
+    public DomainRange difference(@NonNull DomainRange other) {
+        return new DomainRange(intervalSet.difference(other.intervalSet));
+    }
+    
+    /**
+     * Every real number not in this domain/range. O(n). Since an interval can't be a single point, any single points
+     * in the result (e.g. 1 for x < 1 or x > 1) are left out.
+     */
+    public DomainRange complement() {
+        return new DomainRange(intervalSet.complement());
+    }
+    
+    /**
+     * The intervals or'd together, in increasing order. The returned set can't be modified, and makes each
+     * {@link Interval} as it's iterated over - use {@link #getIntervalSet()} to avoid that.
+     */
+    public Set<Interval> getIntervals() {
+        return new SortedIntervalSet(intervalSet);
     }
     
     @Override
     public String toString() {
-        // All the interval strings with " or " in between
-        return intervals.stream()
-                .map(Interval::toString)
-                .reduce((interval1, interval2) -> interval1 + " or " + interval2)
-                .orElse("");
+        return intervalSet.toString();
+    }
+    
+    /**
+     * Read-only {@link Set} view of an {@link IntervalSet}.
+     */
+    private static class SortedIntervalSet extends AbstractSet<Interval> {
+        
+        private final IntervalSet intervals;
+        
+        private SortedIntervalSet(IntervalSet intervals) {
+            this.intervals = intervals;
+        }
+        
+        @Override
+        public Iterator<Interval> iterator() {
+            return new Iterator<Interval>() {
+                private int next = 0;
+                
+                @Override
+                public boolean hasNext() {
+                    return next < intervals.size();
+                }
+                
+                @Override
+                public Interval next() {
+                    if (next >= intervals.size()) throw new NoSuchElementException();
+                    return intervals.getInterval(next++);
+                }
+            };
+        }
+        
+        @Override
+        public int size() {
+            return intervals.size();
+        }
+        
+        @Override
+        public boolean contains(Object o) {
+            return o instanceof Interval && intervals.indexOf((Interval) o) != -1;
+        }
+        
     }
     
 }
\ No newline at end of file
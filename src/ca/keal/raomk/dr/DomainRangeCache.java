@@ -0,0 +1,115 @@
+package ca.keal.raomk.dr;
+
+import lombok.Data;
+import lombok.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, thread-safe, least-recently-used cache of parsed {@link DomainRange}s, keyed on the input and variable.
+ * Inputs that fail to parse are cached too, as a failed {@link ParseResult}. Players type the same few answers
+ * over and over, so most parses are hits.
+ */
+public final class DomainRangeCache {
+    
+    private static final int DEFAULT_CAPACITY = 1024;
+    
+    /** The cache used by {@link DomainRange#parseCached(String, char)} and {@link DomainRange#parseStatic}. */
+    public static final DomainRangeCache SHARED = new DomainRangeCache(DEFAULT_CAPACITY);
+    
+    private final int capacity;
+    private final Map<Key, ParseResult<DomainRange>> entries;
+    
+    // All guarded by this
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+    
+    public DomainRangeCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        
+        // Access order, so the eldest entry is the least recently used
+        entries = new LinkedHashMap<Key, ParseResult<DomainRange>>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, ParseResult<DomainRange>> eldest) {
+                if (size() > DomainRangeCache.this.capacity) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+    
+    /**
+     * Parse a {@link DomainRange}, or get it from the cache if it's been parsed before.
+     * See {@link DomainRange#parse(String, char)}.
+     */
+    public DomainRange parse(@NonNull String input, char var) throws ParseException, Interval.EqualBoundsException {
+        return tryParse(input, var).getOrThrow();
+    }
+    
+    /**
+     * Parse a {@link DomainRange} without throwing, or get the result from the cache if it's been parsed before.
+     * See {@link DomainRange#tryParse(CharSequence, char)}.
+     */
+    public ParseResult<DomainRange> tryParse(@NonNull String input, char var) {
+        Key key = new Key(input, var);
+        ParseResult<DomainRange> result;
+        synchronized (this) {
+            result = entries.get(key);
+            if (result != null) {
+                hits++;
+            } else {
+                misses++;
+            }
+        }
+        
+        if (result == null) {
+            // Parse outside the lock - at worst two threads parse the same thing at once
+            result = DomainRangeParser.parse(input, var);
+            synchronized (this) {
+                entries.put(key, result);
+            }
+        }
+        
+        return result;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return "DomainRangeCache(size=" + entries.size() + "/" + capacity + ", hits=" + hits + ", misses=" + misses
+                + ", evictions=" + evictions + ")";
+    }
+    
+    @Data
+    private static class Key {
+        private final String input;
+        private final char var;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,398 @@
+package ca.keal.raomk.dr;
+
+import lombok.NonNull;
+import lombok.SneakyThrows;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hand-written lexer and parser for {@link DomainRange}s and {@link Interval}s. The input is read once and each token
+ * is turned into a primitive token code; numbers are parsed straight out of the input without making substrings.
+ * <p>
+ * Tokens are split the same way the old regex tokenizer split them: runs of letters, runs of number characters
+ * (digits, '.' and '-'), and runs of any other characters, with whitespace separating tokens and being thrown away.
+ * <p>
+ * Parsing never throws - the first error found is recorded and the result is a failed {@link ParseResult}.
+ */
+final class DomainRangeParser {
+    
+    // Token codes - these are flags because a token can be more than one thing (e.g. the variable and a number)
+    static final int OTHER = 0;
+    static final int NUMBER = 1;
+    static final int VAR = 1 << 1;
+    static final int OR = 1 << 2;
+    static final int OPERATOR = 1 << 3;
+    static final int LESS_THAN = 1 << 4; // operator is <, <= or ≤ (otherwise it's >, >= or ≥)
+    static final int INCLUSIVE = 1 << 5; // operator is <=, ≤, >= or ≥
+    
+    // Character classes - a token is a run of characters of the same class
+    private static final int LETTER = 0;
+    private static final int NUMERIC = 1;
+    private static final int WHITESPACE = 2;
+    private static final int SYMBOL = 3;
+    
+    // Numbers with up to this many digits are exactly representable as a long and as a double
+    private static final int MAX_FAST_PATH_DIGITS = 15;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+    
+    final Tokens tokens;
+    
+    // The first error found, if any
+    private String error = null;
+    private int errorOffset = -1;
+    private boolean errorEqualBounds = false;
+    
+    private DomainRangeParser(Tokens tokens) {
+        this.tokens = tokens;
+    }
+    
+    /**
+     * Start parsing input[from, to) clause by clause: call {@link #findClauses(CharSequence)}, then
+     * {@link #parseInterval(int, int)} on each clause, then {@link #result(Object)}. from and to must be on token
+     * boundaries.
+     */
+    DomainRangeParser(CharSequence input, int from, int to, char var) {
+        this(lex(input, from, to, var));
+    }
+    
+    /** Parse a {@link DomainRange}. See {@link DomainRange#tryParse(CharSequence, char)}. */
+    static ParseResult<DomainRange> parse(@NonNull CharSequence input, char var) {
+        DomainRangeParser parser = new DomainRangeParser(lex(input, var));
+        return parser.result(parser.parseDomainRange(input));
+    }
+    
+    /**
+     * Parse an {@link Interval} from already-split tokens. See {@link Interval#parse(List, char)}. Error offsets are
+     * the index of the token rather than a character offset.
+     */
+    static ParseResult<Interval> parseInterval(List<String> tokens, char var) {
+        Tokens lexed = new Tokens(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            String token = tokens.get(i);
+            lexed.add(token, 0, token.length(), var);
+            lexed.starts[i] = i;
+            lexed.ends[i] = i + 1;
+        }
+        
+        DomainRangeParser parser = new DomainRangeParser(lexed);
+        return parser.result(parser.parseInterval(0, lexed.size));
+    }
+    
+    <T> ParseResult<T> result(T value) {
+        return value != null ? ParseResult.success(value) : ParseResult.failure(error, errorOffset, errorEqualBounds);
+    }
+    
+    // Record an error; always returns null so it can be returned straight away
+    private <T> T fail(String message, int offset) {
+        error = message;
+        errorOffset = offset;
+        return null;
+    }
+    
+    private <T> T failEqualBounds(int offset) {
+        errorEqualBounds = true;
+        return fail("Bounds cannot be equal!", offset);
+    }
+    
+    private DomainRange parseDomainRange(CharSequence input) {
+        int[] intervalEnds = findClauses(input);
+        if (intervalEnds == null) return null;
+        
+        Interval[] intervals = new Interval[intervalEnds.length];
+        int intervalStart = 0;
+        for (int i = 0; i < intervalEnds.length; i++) {
+            intervals[i] = parseInterval(intervalStart, intervalEnds[i]);
+            if (intervals[i] == null) return null;
+            intervalStart = intervalEnds[i] + 1;
+        }
+        return new DomainRange(IntervalSet.of(intervals));
+    }
+    
+    /**
+     * Check for illegal tokens and split the tokens into clauses joined by "or". Returns the (exclusive) token index
+     * each clause ends at, which is the index of the "or" after it, or null if there's an error.
+     */
+    int[] findClauses(CharSequence input) {
+        // Find illegal tokens - any not <, <=, >, >=, &le;, &ge;, number, var, or
+        StringBuilder illegals = null;
+        int firstIllegal = -1;
+        for (int i = 0; i < tokens.size; i++) {
+            if (tokens.codes[i] == OTHER) {
+                if (illegals == null) {
+                    illegals = new StringBuilder("Illegal tokens: ");
+                    firstIllegal = tokens.starts[i];
+                } else {
+                    illegals.append(", ");
+                }
+                illegals.append(input, tokens.starts[i], tokens.ends[i]);
+            }
+        }
+        if (illegals != null) {
+            return fail(illegals.toString(), firstIllegal);
+        }
+        
+        // Find where each interval ends (they're joined together by "or")
+        int[] intervalEnds = new int[tokens.size + 1];
+        int numIntervals = 0;
+        int intervalStart = 0;
+        for (int i = 0; i < tokens.size; i++) {
+            if (tokens.codes[i] == OR) {
+                if (i == intervalStart) {
+                    return fail("Extraneous \"or\"", tokens.starts[i]);
+                }
+                intervalEnds[numIntervals++] = i;
+                intervalStart = i + 1;
+            }
+        }
+        intervalEnds[numIntervals++] = tokens.size;
+        return Arrays.copyOf(intervalEnds, numIntervals);
+    }
+    
+    // Parse the interval made of tokens [from, to). Tokens must all be legal; they may however not be in order.
+    Interval parseInterval(int from, int to) {
+        // There must be three (e.g. x > 5) or five (e.g. 9 < x < 10) tokens
+        int size = to - from;
+        if (size != 3 && size != 5) {
+            return fail("Interval has wrong number of parts", intervalOffset(from));
+        }
+        
+        // Tokens 0, 2, etc. must be num/var, tokens 1, 3, etc. must be comparison operators
+        for (int i = 0; i < size; i++) {
+            int code = tokens.codes[from + i];
+            if (i % 2 == 0) {
+                if ((code & (NUMBER | VAR)) == 0) {
+                    return fail("Token " + (i + 1) + " must be a number or the variable", tokens.starts[from + i]);
+                }
+            } else {
+                if ((code & OPERATOR) == 0) {
+                    return fail("Token " + (i + 1) + " must be a comparison operator", tokens.starts[from + i]);
+                }
+            }
+        }
+        
+        // Parse bounded or unbounded
+        if (size == 3) {
+            return parseUnbounded(from);
+        } else {
+            return parseBounded(from);
+        }
+    }
+    
+    // Where the interval starting at token from is in the input, even if it has no tokens
+    private int intervalOffset(int from) {
+        if (from < tokens.size) return tokens.starts[from];
+        return from > 0 ? tokens.ends[from - 1] : 0;
+    }
+    
+    // Parse an Interval with one side unbounded (e.g. x < 1)
+    @SneakyThrows // equal bounds are checked before making the Interval
+    private Interval parseUnbounded(int from) {
+        boolean varFirst = tokens.is(from, VAR);
+        int varIndex = varFirst ? from : from + 2;
+        int numberIndex = varFirst ? from + 2 : from;
+        
+        // One must be variable, other must be number
+        if (!tokens.is(varIndex, VAR) || !tokens.is(numberIndex, NUMBER)) {
+            int offset = tokens.starts[tokens.is(varIndex, VAR) ? numberIndex : varIndex];
+            return fail("Interval must alternate variable-operator-number or vice versa", offset);
+        }
+        
+        // Decide whether it's an upper or lower bound and whether it's inclusive based on the operator
+        int operator = tokens.codes[from + 1];
+        boolean boundUpper = ((operator & LESS_THAN) != 0) == varFirst;
+        Interval.Bound bound = new Interval.Bound(tokens.numbers[numberIndex], (operator & INCLUSIVE) != 0);
+        Interval.Bound other = boundUpper ? Interval.Bound.NEG_INFINITY : Interval.Bound.INFINITY;
+        
+        // Only possible if the number was too big for a double
+        if (bound.compareTo(other) == 0) {
+            return failEqualBounds(tokens.starts[from]);
+        }
+        
+        return new Interval(bound, other);
+    }
+    
+    // Parse an interval with both sides bounded (e.g. -20 > x > -50)
+    @SneakyThrows // equal bounds are checked before making the Interval
+    private Interval parseBounded(int from) {
+        // Middle token must be variable
+        if (!tokens.is(from + 2, VAR)) {
+            return fail("Variable must be in the middle of a double-bounded interval", tokens.starts[from + 2]);
+        }
+        
+        // First and last tokens must be numbers
+        if (!tokens.is(from, NUMBER) || !tokens.is(from + 4, NUMBER)) {
+            return fail("Numbers must be the first and last of a double-bounded interval",
+                    tokens.starts[tokens.is(from, NUMBER) ? from + 4 : from]);
+        }
+        
+        int operator1 = tokens.codes[from + 1];
+        int operator2 = tokens.codes[from + 3];
+        
+        // Operators must both be less than or greater than
+        boolean lessThan = (operator1 & LESS_THAN) != 0;
+        if (lessThan != ((operator2 & LESS_THAN) != 0)) {
+            return fail("Operators must be the same direction in a double-bounded interval", tokens.starts[from + 3]);
+        }
+        
+        // Prevent things like 5 < x < 3
+        Interval.Bound first = new Interval.Bound(tokens.numbers[from], (operator1 & INCLUSIVE) != 0);
+        Interval.Bound second = new Interval.Bound(tokens.numbers[from + 4], (operator2 & INCLUSIVE) != 0);
+        Interval.Bound lower = lessThan ? first : second;
+        Interval.Bound upper = lessThan ? second : first;
+        
+        int comparison = lower.compareTo(upper);
+        if (comparison > 0) {
+            return fail("Lower bound cannot be greater than upper bound", tokens.starts[from]);
+        } else if (comparison == 0) {
+            return failEqualBounds(tokens.starts[from]);
+        }
+        
+        return new Interval(lower, upper);
+    }
+    
+    /** Split the input into tokens in one pass. Whitespace is dropped. */
+    static Tokens lex(CharSequence input, char var) {
+        return lex(input, 0, input.length(), var);
+    }
+    
+    // Split input[from, to) into tokens; their starts and ends are still offsets into the whole input
+    private static Tokens lex(CharSequence input, int from, int to, char var) {
+        Tokens tokens = new Tokens(to - from);
+        
+        int i = from;
+        while (i < to) {
+            int charClass = classify(input.charAt(i));
+            if (charClass == WHITESPACE) {
+                i++;
+                continue;
+            }
+            
+            int start = i;
+            do {
+                i++;
+            } while (i < to && classify(input.charAt(i)) == charClass);
+            tokens.add(input, start, i, var);
+        }
+        
+        return tokens;
+    }
+    
+    private static int classify(char c) {
+        if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) return LETTER;
+        if ((c >= '0' && c <= '9') || c == '.' || c == '-') return NUMERIC;
+        // the same characters as \s in a regex
+        if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') return WHITESPACE;
+        return SYMBOL;
+    }
+    
+    // Work out the token code for the token input[start, end)
+    private static int tokenCode(CharSequence input, int start, int end, char var) {
+        if (start == end) return OTHER;
+        
+        char first = input.charAt(start);
+        int code = OTHER;
+        
+        if (end - start == 1) {
+            if (first == var) code |= VAR;
+            
+            if (first == '<') code |= OPERATOR | LESS_THAN;
+            else if (first == '≤') code |= OPERATOR | LESS_THAN | INCLUSIVE;
+            else if (first == '>') code |= OPERATOR;
+            else if (first == '≥') code |= OPERATOR | INCLUSIVE;
+        } else if (end - start == 2) {
+            char second = input.charAt(start + 1);
+            
+            if (first == '<' && second == '=') code |= OPERATOR | LESS_THAN | INCLUSIVE;
+            else if (first == '>' && second == '=') code |= OPERATOR | INCLUSIVE;
+            else if (first == 'o' && second == 'r') code |= OR;
+        }
+        
+        return code;
+    }
+    
+    /**
+     * Parse input[start, end) as a number of the form -?\d+(\.\d+)?, giving exactly what
+     * {@link Double#parseDouble(String)} would. Returns NaN if it isn't a number of that form.
+     */
+    static double parseNumber(CharSequence input, int start, int end) {
+        int i = start;
+        boolean negative = i < end && input.charAt(i) == '-';
+        if (negative) i++;
+        
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        
+        // Integer part
+        int integerStart = i;
+        for (; i < end && isDigit(input.charAt(i)); i++, digits++) {
+            mantissa = mantissa * 10 + (input.charAt(i) - '0');
+        }
+        if (i == integerStart) return Double.NaN;
+        
+        // Fraction part
+        if (i < end) {
+            if (input.charAt(i) != '.') return Double.NaN;
+            i++;
+            
+            int fractionStart = i;
+            for (; i < end && isDigit(input.charAt(i)); i++, digits++, fractionDigits++) {
+                mantissa = mantissa * 10 + (input.charAt(i) - '0');
+            }
+            if (i == fractionStart || i != end) return Double.NaN;
+        }
+        
+        if (digits > MAX_FAST_PATH_DIGITS) {
+            // The mantissa may have lost precision (or overflowed), let the JDK deal with rounding it correctly
+            return Double.parseDouble(input.subSequence(start, end).toString());
+        }
+        
+        // Both are exact so the one division is correctly rounded, just like Double.parseDouble()
+        double value = mantissa / POWERS_OF_TEN[fractionDigits];
+        return negative ? -value : value;
+    }
+    
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+    
+    /** Lexed tokens, stored as parallel primitive arrays. */
+    static final class Tokens {
+        
+        int size = 0;
+        int[] codes;
+        int[] starts;
+        int[] ends;
+        double[] numbers; // value of each NUMBER token
+        
+        Tokens(int capacity) {
+            codes = new int[capacity];
+            starts = new int[capacity];
+            ends = new int[capacity];
+            numbers = new double[capacity];
+        }
+        
+        void add(CharSequence input, int start, int end, char var) {
+            int code = tokenCode(input, start, end, var);
+            double number = parseNumber(input, start, end);
+            if (!Double.isNaN(number)) {
+                code |= NUMBER;
+            }
+            
+            codes[size] = code;
+            starts[size] = start;
+            ends[size] = end;
+            numbers[size] = number;
+            size++;
+        }
+        
+        boolean is(int index, int flag) {
+            return (codes[index] & flag) != 0;
+        }
+        
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,114 @@
+package ca.keal.raomk.dr;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Parses a domain/range over and over as it's edited, e.g. once per keystroke. Each input is compared with the last
+ * one that parsed successfully, and the "or" clauses outside the edited part keep their {@link Interval}s without
+ * being lexed or parsed again; only the edited clauses are. The results are exactly those of
+ * {@link DomainRange#tryParse(CharSequence, char)}. Not thread-safe.
+ */
+public final class IncrementalDomainRangeParser {
+    
+    @Getter private final char var;
+    
+    // The last input that parsed successfully: its Interval for each clause, and where the "or" after each clause is
+    private String lastInput = "";
+    private Interval[] intervals = new Interval[0];
+    private int[] orStarts = new int[0];
+    
+    /** How many clauses have been parsed, and how many were reused from an earlier parse instead */
+    @Getter private long clausesParsed = 0;
+    @Getter private long clausesReused = 0;
+    
+    public IncrementalDomainRangeParser(char var) {
+        this.var = var;
+    }
+    
+    /** Parse {@code input}, reusing the clauses it has in common with the last input that parsed successfully. */
+    public ParseResult<DomainRange> parse(@NonNull String input) {
+        int lastLength = lastInput.length();
+        int shift = input.length() - lastLength;
+        int prefix = commonPrefix(input, lastInput);
+        int suffix = commonSuffix(input, lastInput);
+        
+        // Keep clauses before the edit if the "or" after them and the character after that are untouched...
+        int numLast = intervals.length;
+        int keptBefore = 0;
+        while (keptBefore < numLast - 1 && orStarts[keptBefore] + 2 < prefix) {
+            keptBefore++;
+        }
+        int from = keptBefore > 0 ? orStarts[keptBefore - 1] + 2 : 0;
+        
+        // ...and clauses after the edit if the "or" before them and the character before that are untouched. The
+        // prefix and suffix can overlap (e.g. when a clause is copied), so these have to come after the others.
+        int keptAfter = 0;
+        while (keptAfter < numLast - Math.max(keptBefore, 1)) {
+            int orStart = orStarts[numLast - keptAfter - 2];
+            if (orStart <= lastLength - suffix || orStart + shift <= from) break;
+            keptAfter++;
+        }
+        int to = keptAfter > 0 ? orStarts[numLast - keptAfter - 1] + shift : input.length();
+        
+        // Everything in between has to be parsed
+        DomainRangeParser parser = new DomainRangeParser(input, from, to, var);
+        int[] tokenEnds = parser.findClauses(input);
+        Interval[] edited = tokenEnds != null ? parseClauses(parser, tokenEnds) : null;
+        if (edited == null) {
+            // Let a full parse find the error, so it's the same error tryParse() would give. Since a kept clause and
+            // the "or"s around it are always valid, the full parse is sure to fail too.
+            return DomainRangeParser.parse(input, var);
+        }
+        clausesReused += keptBefore + keptAfter;
+        
+        // Put the kept and edited clauses together, in order
+        int numClauses = keptBefore + edited.length + keptAfter;
+        Interval[] newIntervals = new Interval[numClauses];
+        int[] newOrStarts = new int[numClauses - 1];
+        System.arraycopy(intervals, 0, newIntervals, 0, keptBefore);
+        System.arraycopy(edited, 0, newIntervals, keptBefore, edited.length);
+        System.arraycopy(intervals, numLast - keptAfter, newIntervals, keptBefore + edited.length, keptAfter);
+        
+        System.arraycopy(orStarts, 0, newOrStarts, 0, keptBefore);
+        for (int i = 0; i < edited.length - 1; i++) {
+            newOrStarts[keptBefore + i] = parser.tokens.starts[tokenEnds[i]];
+        }
+        for (int i = 0; i < keptAfter; i++) {
+            newOrStarts[keptBefore + edited.length - 1 + i] = orStarts[numLast - keptAfter - 1 + i] + shift;
+        }
+        
+        lastInput = input;
+        intervals = newIntervals;
+        orStarts = newOrStarts;
+        return ParseResult.success(new DomainRange(IntervalSet.of(newIntervals)));
+    }
+    
+    // Parse each clause found by parser.findClauses(), or return null if any fail
+    private Interval[] parseClauses(DomainRangeParser parser, int[] tokenEnds) {
+        Interval[] parsed = new Interval[tokenEnds.length];
+        int from = 0;
+        for (int i = 0; i < tokenEnds.length; i++) {
+            clausesParsed++;
+            parsed[i] = parser.parseInterval(from, tokenEnds[i]);
+            if (parsed[i] == null) return null;
+            from = tokenEnds[i] + 1;
+        }
+        return parsed;
+    }
+    
+    private static int commonPrefix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+    
+    private static int commonSuffix(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(a.length() - 1 - i) == b.charAt(b.length() - 1 - i)) i++;
+        return i;
+    }
+    
+}
\ No newline at end of file
@@ -13,8 +13,6 @@ import java.util.List;
 @Data
 public class Interval {
     
-    private static final String NUMBER_REGEX = "-?\\d+(\\.\\d+)?";
-    
     private final Bound lowerBound;
     private final Bound upperBound;
     
@@ -42,112 +40,7 @@ public class Interval {
      * correct order. Parses in x > 3, 5 < x < 10, etc. form, not [1, 20) form.
      */
     public static Interval parse(List<String> tokens, char var) throws ParseException, EqualBoundsException {
-        // There must be three (e.g. x > 5) or five (e.g. 9 < x < 10) tokens
-        if (tokens.size() != 3 && tokens.size() != 5) {
-            throw new ParseException("Interval has wrong number of parts");
-        }
-        
-        // Tokens 0, 2, etc. must be num/var, tokens 1, 3, etc. must be comparison operators
-        for (int i = 0; i < tokens.size(); i++) {
-            String token = tokens.get(i);
-            if (i % 2 == 0) {
-                // Even: must be num/var
-                if (!token.matches(NUMBER_REGEX) && !token.equals(String.valueOf(var))) {
-                    throw new ParseException("Token " + (i + 1) + " must be a number or the variable");
-                }
-            } else {
-                // Odd: must be comparison operator
-                if (!token.matches(">|>=|≥|<|<=|≤")) {
-                    throw new ParseException("Token " + (i + 1) + " must be a comparison operator");
-                }
-            }
-        }
-        
-        // Parse bounded or unbounded
-        if (tokens.size() == 3) {
-            return parseUnbounded(tokens, var);
-        } else {
-            return parseBounded(tokens, var);
-        }
-    }
-    
-    // Parse an Interval with one side unbounded (e.g. x < 1)
-    private static Interval parseUnbounded(List<String> tokens, char var) throws ParseException, EqualBoundsException {
-        boolean varFirst = tokens.get(0).equals(String.valueOf(var));
-        
-        // One must be variable, other must be number
-        if (!tokens.get(varFirst ? 0 : 2).equals(String.valueOf(var))
-                || !tokens.get(varFirst ? 2 : 0).matches(NUMBER_REGEX)) {
-            throw new ParseException("Interval must alternate variable-operator-number or vice versa");
-        }
-        
-        // Decide whether it's an upper or lower bound and whether it's inclusive based on the operator
-        String operator = tokens.get(1);
-        boolean boundUpper = isOperatorLessThan(operator) == varFirst;
-        boolean inclusive = isOperatorInclusive(operator);
-        
-        // Parse the interval
-        double boundNum = Double.parseDouble(tokens.get(varFirst ? 2 : 0));
-        Bound bound = new Bound(boundNum, inclusive);
-        
-        Bound upper, lower;
-        if (boundUpper) {
-            upper = bound;
-            lower = Bound.NEG_INFINITY;
-        } else {
-            lower = bound;
-            upper = Bound.INFINITY;
-        }
-        
-        return new Interval(upper, lower);
-    }
-    
-    // Parse an interval with both sides bounded (e.g. -20 > x > -50)
-    private static Interval parseBounded(List<String> tokens, char var) throws ParseException, EqualBoundsException {
-        // Middle token must be variable
-        if (!tokens.get(2).equals(String.valueOf(var))) {
-            throw new ParseException("Variable must be in the middle of a double-bounded interval");
-        }
-        
-        // First and last tokens must be numbers
-        if (!tokens.get(0).matches(NUMBER_REGEX) || !tokens.get(4).matches(NUMBER_REGEX)) {
-            throw new ParseException("Numbers must be the first and last of a double-bounded interval");
-        }
-        
-        String operator1 = tokens.get(1);
-        String operator2 = tokens.get(3);
-        
-        // Operators must both be less than or greater than
-        boolean lessThan = isOperatorLessThan(operator1);
-        if (lessThan != isOperatorLessThan(operator2)) {
-            throw new ParseException("Operators must be the same direction in a double-bounded interval");
-        }
-        
-        // Prevent things like 5 < x < 3
-        Bound first = new Bound(Double.parseDouble(tokens.get(0)), isOperatorInclusive(operator1));
-        Bound second = new Bound(Double.parseDouble(tokens.get(4)), isOperatorInclusive(operator2));
-        Bound upper, lower;
-        if (lessThan) {
-            lower = first;
-            upper = second;
-        } else {
-            lower = second;
-            upper = first;
-        }
-        
-        if (lower.compareTo(upper) > 0) {
-            throw new ParseException("Lower bound cannot be greater than upper bound");
-        }
-        
-        return new Interval(lower, upper);
-    }
-    
-    private static boolean isOperatorInclusive(String operator) {
-        return operator.equals("<=") || operator.equals("≤") || operator.equals(">=") || operator.equals("≥");
-    }
-    
-    private static boolean isOperatorLessThan(String operator) {
-        return operator.equals("<") || operator.equals("<=") || operator.equals("≤");
+        return DomainRangeParser.parseInterval(tokens, var).getOrThrow();
     }
     
     public boolean contains(double number) {
@@ -257,7 +150,7 @@ public class Interval {
      * Thrown when an Interval is initialized with bounds that are equal.
      */
     public static class EqualBoundsException extends RuntimeException {
-        private EqualBoundsException(String message) {
+        EqualBoundsException(String message) {
             super(message);
         }
     }
@@ -0,0 +1,435 @@
+package ca.keal.raomk.dr;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+
+/**
+ * A compact set of intervals or'd together, sorted in increasing order and never overlapping. Instead of an
+ * {@link Interval} and two {@link Interval.Bound}s per interval, this is stored as one array of endpoints and one bit
+ * per endpoint for whether it's inclusive. Immutable.
+ */
+public final class IntervalSet {
+    
+    public static final IntervalSet EMPTY = new IntervalSet(new double[0], new long[0]);
+    
+    // Sorts by lower bound - if two lower bounds are equal, the inclusive one goes first so it's merged first
+    private static final Comparator<Interval> LOWER_BOUND_ORDER = (interval1, interval2) -> {
+        int comparison = interval1.getLowerBound().compareTo(interval2.getLowerBound());
+        if (comparison != 0) return comparison;
+        return Boolean.compare(interval2.getLowerBound().isInclusive(), interval1.getLowerBound().isInclusive());
+    };
+    
+    /** The lower then upper bound of each interval, in increasing order */
+    private final double[] bounds;
+    
+    /** Bit i is set if bounds[i] is inclusive */
+    private final long[] inclusive;
+    
+    /**
+     * A hash of bounds and inclusive, worked out once so that unequal sets can almost always be told apart without
+     * looking at the arrays. Equal sets always have the same fingerprint, since the arrays are canonical.
+     */
+    private final long fingerprint;
+    
+    private IntervalSet(double[] bounds, long[] inclusive) {
+        this.bounds = bounds;
+        this.inclusive = inclusive;
+        fingerprint = fingerprint(bounds, inclusive);
+    }
+    
+    /** Make an IntervalSet out of any intervals, in any order, merging any that overlap. */
+    public static IntervalSet of(Interval... intervals) {
+        return fromScratch(intervals.clone());
+    }
+    
+    /** Make an IntervalSet out of any intervals, in any order, merging any that overlap. */
+    public static IntervalSet of(Collection<Interval> intervals) {
+        return fromScratch(intervals.toArray(new Interval[intervals.size()]));
+    }
+    
+    // Simplify then pack the intervals - the array passed in is used as scratch space
+    private static IntervalSet fromScratch(Interval[] intervals) {
+        int size = simplify(intervals);
+        if (size == 0) return EMPTY;
+        
+        double[] bounds = new double[size * 2];
+        long[] inclusive = new long[wordsFor(size * 2)];
+        for (int i = 0; i < size; i++) {
+            Interval.Bound lower = intervals[i].getLowerBound();
+            Interval.Bound upper = intervals[i].getUpperBound();
+            bounds[2*i] = lower.getNumber();
+            bounds[2*i + 1] = upper.getNumber();
+            if (lower.isInclusive()) setBit(inclusive, 2*i);
+            if (upper.isInclusive()) setBit(inclusive, 2*i + 1);
+        }
+        
+        return new IntervalSet(bounds, inclusive);
+    }
+    
+    /**
+     * Simplify the intervals - if any overlap, merge them. Sorts the array then merges neighbours in one sweep, so
+     * this is O(n log n). The merged intervals are left at the start of the array; returns how many there are.
+     */
+    private static int simplify(Interval[] intervals) {
+        if (intervals.length < 2) return intervals.length;
+        Arrays.sort(intervals, LOWER_BOUND_ORDER);
+        
+        // Each interval either joins onto the one being built up or starts a new one
+        int numMerged = 0;
+        Interval current = intervals[0];
+        for (int i = 1; i < intervals.length; i++) {
+            Interval next = intervals[i];
+            // Identical exclusive intervals don't count as overlapping, but still need to be merged
+            if (current.overlaps(next) || current.equals(next)) {
+                current = current.combine(next);
+            } else {
+                intervals[numMerged++] = current;
+                current = next;
+            }
+        }
+        intervals[numMerged++] = current;
+        
+        return numMerged;
+    }
+    
+    /** The number of intervals in this set. */
+    public int size() {
+        return bounds.length / 2;
+    }
+    
+    public boolean isEmpty() {
+        return bounds.length == 0;
+    }
+    
+    public double getLower(int index) {
+        return bounds[2*index];
+    }
+    
+    public double getUpper(int index) {
+        return bounds[2*index + 1];
+    }
+    
+    public boolean isLowerInclusive(int index) {
+        return getBit(inclusive, 2*index);
+    }
+    
+    public boolean isUpperInclusive(int index) {
+        return getBit(inclusive, 2*index + 1);
+    }
+    
+    /** Get the interval at {@code index} as an {@link Interval} - note that this creates the Interval. */
+    public Interval getInterval(int index) {
+        return new Interval(bound(2*index), bound(2*index + 1));
+    }
+    
+    private Interval.Bound bound(int boundIndex) {
+        double number = bounds[boundIndex];
+        boolean boundInclusive = getBit(inclusive, boundIndex);
+        
+        // No need to make new infinities
+        if (!boundInclusive && number == Double.POSITIVE_INFINITY) return Interval.Bound.INFINITY;
+        if (!boundInclusive && number == Double.NEGATIVE_INFINITY) return Interval.Bound.NEG_INFINITY;
+        return new Interval.Bound(number, boundInclusive);
+    }
+    
+    /** Find the index of {@code interval} in this set, or -1 if it isn't in this set. O(log n). */
+    public int indexOf(Interval interval) {
+        // Lower bounds are strictly increasing, so binary search on them
+        double lower = interval.getLowerBound().getNumber();
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int comparison = Double.compare(getLower(mid), lower);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                boolean equal = isLowerInclusive(mid) == interval.getLowerBound().isInclusive()
+                        && Double.compare(getUpper(mid), interval.getUpperBound().getNumber()) == 0
+                        && isUpperInclusive(mid) == interval.getUpperBound().isInclusive();
+                return equal ? mid : -1;
+            }
+        }
+        return -1;
+    }
+    
+    /** Whether {@code number} is in any of the intervals. O(log n). */
+    public boolean contains(double number) {
+        int index = lastLowerAtMost(number);
+        return index != -1 && inInterval(index, number);
+    }
+    
+    /**
+     * Check whether each of {@code numbers} is in any of the intervals, putting the answers in {@code out}. If
+     * {@code numbers} is sorted this walks along it and the intervals together in O(n + m); any number that's out of
+     * order costs an O(log n) search.
+     */
+    public void contains(double[] numbers, boolean[] out) {
+        if (out.length < numbers.length) {
+            throw new IllegalArgumentException("out is shorter than numbers");
+        }
+        
+        int index = 0;
+        double previous = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < numbers.length; i++) {
+            double number = numbers[i];
+            if (Double.isNaN(number)) {
+                // Not in anything, and not a place to walk on from
+                out[i] = false;
+                continue;
+            }
+            if (!(number >= previous)) {
+                // Out of order - start again from wherever this number is
+                index = Math.max(lastLowerAtMost(number), 0);
+            }
+            previous = number;
+            
+            // Skip past the intervals that end before this number
+            while (index < size() && isBelow(index, number)) {
+                index++;
+            }
+            out[i] = index < size() && inInterval(index, number);
+        }
+    }
+    
+    /**
+     * Check whether each of {@code numbers} is in any of the intervals - bit i of the result is set if numbers[i] is.
+     * See {@link #contains(double[], boolean[])}.
+     */
+    public BitSet contains(double[] numbers) {
+        boolean[] out = new boolean[numbers.length];
+        contains(numbers, out);
+        
+        BitSet bits = new BitSet(numbers.length);
+        for (int i = 0; i < out.length; i++) {
+            if (out[i]) bits.set(i);
+        }
+        return bits;
+    }
+    
+    /** Everything in this set or {@code other}. O(n + m). */
+    public IntervalSet union(IntervalSet other) {
+        return combine(this, other, (inThis, inOther) -> inThis || inOther);
+    }
+    
+    /** Everything in both this set and {@code other}. O(n + m). Single points are dropped; see {@link #combine}. */
+    public IntervalSet intersect(IntervalSet other) {
+        return combine(this, other, (inThis, inOther) -> inThis && inOther);
+    }
+    
+    /** Everything in this set but not in {@code other}. O(n + m). Single points are dropped; see {@link #combine}. */
+    public IntervalSet difference(IntervalSet other) {
+        return combine(this, other, (inThis, inOther) -> inThis && !inOther);
+    }
+    
+    /** Every real number not in this set. O(n). Single points are dropped; see {@link #combine}. */
+    public IntervalSet complement() {
+        return combine(this, EMPTY, (inThis, inOther) -> !inThis);
+    }
+    
+    /**
+     * Combine two sets with a boolean operation by walking along both of their bounds at once. The real line is split
+     * up at every bound of either set into points and the gaps between them; each point and gap is in the result if
+     * {@code op} says so, and runs of them make the result's intervals. Because an interval can't have equal bounds,
+     * a point that would be in the result on its own (e.g. 1 in [0, 1] intersected with [1, 2]) is left out.
+     */
+    private static IntervalSet combine(IntervalSet a, IntervalSet b, BooleanOperator op) {
+        int maxIntervals = a.size() + b.size() + 1;
+        double[] bounds = new double[maxIntervals * 2];
+        long[] inclusive = new long[wordsFor(maxIntervals * 2)];
+        int numBounds = 0;
+        
+        // Where each set is up to - only ever moves forwards
+        int indexA = 0;
+        int indexB = 0;
+        int boundA = 0;
+        int boundB = 0;
+        
+        // The run of points and gaps in the result being built up
+        boolean inRun = false;
+        double runLower = 0;
+        boolean runLowerInclusive = false;
+        
+        // The gap below the lowest bound - neither set has anything there (or the lowest bound would be -infinity)
+        double lowest = Math.min(a.isEmpty() ? Double.POSITIVE_INFINITY : a.bounds[0],
+                b.isEmpty() ? Double.POSITIVE_INFINITY : b.bounds[0]);
+        if (lowest > Double.NEGATIVE_INFINITY && op.apply(false, false)) {
+            inRun = true;
+            runLower = Double.NEGATIVE_INFINITY;
+        }
+        
+        boolean lastWasPoint = false;
+        while (boundA < a.bounds.length || boundB < b.bounds.length) {
+            // The next bound of either set, skipping repeats
+            double point;
+            if (boundB >= b.bounds.length || (boundA < a.bounds.length && a.bounds[boundA] <= b.bounds[boundB])) {
+                point = a.bounds[boundA];
+            } else {
+                point = b.bounds[boundB];
+            }
+            while (boundA < a.bounds.length && a.bounds[boundA] == point) boundA++;
+            while (boundB < b.bounds.length && b.bounds[boundB] == point) boundB++;
+            
+            // The point itself
+            while (indexA < a.size() && a.isBelow(indexA, point)) indexA++;
+            while (indexB < b.size() && b.isBelow(indexB, point)) indexB++;
+            boolean inPoint = op.apply(indexA < a.size() && a.inInterval(indexA, point),
+                    indexB < b.size() && b.inInterval(indexB, point));
+            if (inPoint && !inRun) {
+                inRun = true;
+                runLower = point;
+                runLowerInclusive = true;
+            } else if (!inPoint && inRun) {
+                // The run ended in the gap just before this point
+                numBounds = addInterval(bounds, inclusive, numBounds, runLower, runLowerInclusive, point, false);
+                inRun = false;
+            }
+            lastWasPoint = true;
+            if (point == Double.POSITIVE_INFINITY) break;
+            
+            // The gap between this point and the next one (or infinity)
+            while (indexA < a.size() && a.getUpper(indexA) <= point) indexA++;
+            while (indexB < b.size() && b.getUpper(indexB) <= point) indexB++;
+            boolean inGap = op.apply(indexA < a.size() && a.getLower(indexA) <= point,
+                    indexB < b.size() && b.getLower(indexB) <= point);
+            if (inGap && !inRun) {
+                inRun = true;
+                runLower = point;
+                runLowerInclusive = false;
+            } else if (!inGap && inRun) {
+                // The run ended at this point
+                numBounds = addInterval(bounds, inclusive, numBounds, runLower, runLowerInclusive, point, true);
+                inRun = false;
+            }
+            lastWasPoint = false;
+        }
+        
+        if (inRun) {
+            // The run goes all the way up - including infinity itself only if the last thing was the point infinity
+            numBounds = addInterval(bounds, inclusive, numBounds, runLower, runLowerInclusive,
+                    Double.POSITIVE_INFINITY, lastWasPoint);
+        }
+        
+        if (numBounds == 0) return EMPTY;
+        return new IntervalSet(Arrays.copyOf(bounds, numBounds),
+                Arrays.copyOf(inclusive, wordsFor(numBounds)));
+    }
+    
+    // Add an interval to the end of bounds and inclusive, unless it's a single point. Returns the new number of bounds.
+    private static int addInterval(double[] bounds, long[] inclusive, int numBounds,
+                                   double lower, boolean lowerInclusive, double upper, boolean upperInclusive) {
+        if (lower == upper) return numBounds;
+        
+        bounds[numBounds] = lower;
+        bounds[numBounds + 1] = upper;
+        if (lowerInclusive) setBit(inclusive, numBounds);
+        if (upperInclusive) setBit(inclusive, numBounds + 1);
+        return numBounds + 2;
+    }
+    
+    // The index of the last interval whose lower bound is <= number, or -1 if there isn't one
+    private int lastLowerAtMost(double number) {
+        int low = 0;
+        int high = size() - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (getLower(mid) <= number) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return high;
+    }
+    
+    // Whether number is in the interval at index - same as Interval.contains()
+    private boolean inInterval(int index, double number) {
+        double lower = getLower(index);
+        double upper = getUpper(index);
+        return (lower < number || (lower == number && isLowerInclusive(index)))
+                && (number < upper || (number == upper && isUpperInclusive(index)));
+    }
+    
+    // Whether the whole interval at index is below number
+    private boolean isBelow(int index, double number) {
+        double upper = getUpper(index);
+        return upper < number || (upper == number && !isUpperInclusive(index));
+    }
+    
+    static int wordsFor(int bits) {
+        return (bits + 63) >>> 6;
+    }
+    
+    static boolean getBit(long[] words, int bit) {
+        return (words[bit >>> 6] & (1L << bit)) != 0;
+    }
+    
+    static void setBit(long[] words, int bit) {
+        words[bit >>> 6] |= 1L << bit;
+    }
+    
+    /** A 64-bit hash of this set, worked out when it was made. Equal sets have equal fingerprints. */
+    public long getFingerprint() {
+        return fingerprint;
+    }
+    
+    // Bounds are compared bit for bit, like Arrays.equals() does, so -0.0 and 0.0 are different
+    private static long fingerprint(double[] bounds, long[] inclusive) {
+        long hash = bounds.length;
+        for (double bound : bounds) {
+            hash = mix(hash ^ Double.doubleToLongBits(bound));
+        }
+        for (long word : inclusive) {
+            hash = mix(hash ^ word);
+        }
+        return hash;
+    }
+    
+    // The finalizer from MurmurHash3 - every input bit affects every output bit
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+    
+    /** O(1) unless the fingerprints match, in which case the arrays are compared to be sure. */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IntervalSet)) return false;
+        IntervalSet other = (IntervalSet) o;
+        return fingerprint == other.fingerprint
+                && Arrays.equals(bounds, other.bounds) && Arrays.equals(inclusive, other.inclusive);
+    }
+    
+    /** O(1) - just the fingerprint. */
+    @Override
+    public int hashCode() {
+        return (int) (fingerprint ^ (fingerprint >>> 32));
+    }
+    
+    @Override
+    public String toString() {
+        // Each interval like Interval.toString(), with " or " in between
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < size(); i++) {
+            if (i > 0) builder.append(" or ");
+            builder.append(isLowerInclusive(i) ? '[' : '(')
+                    .append(getLower(i)).append(", ").append(getUpper(i))
+                    .append(isUpperInclusive(i) ? ']' : ')');
+        }
+        return builder.toString();
+    }
+    
+    private interface BooleanOperator {
+        boolean apply(boolean inA, boolean inB);
+    }
+    
+}
\ No newline at end of file
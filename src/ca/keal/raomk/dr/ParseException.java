@@ -1,12 +1,25 @@
 package ca.keal.raomk.dr;
 
+import lombok.Getter;
+
 /**
  * Thrown by DomainRange.parse(), Interval.parse(), etc. when parsing fails.
  */
 public class ParseException extends Exception {
     
+    /**
+     * The character offset in the input where parsing failed, or -1 if unknown. For {@link Interval#parse}, this is
+     * the index of the token instead.
+     */
+    @Getter private final int offset;
+    
     ParseException(String msg) {
+        this(msg, -1);
+    }
+    
+    ParseException(String msg, int offset) {
         super(msg);
+        this.offset = offset;
     }
     
 }
\ No newline at end of file
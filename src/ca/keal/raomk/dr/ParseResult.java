@@ -0,0 +1,56 @@
+package ca.keal.raomk.dr;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * The outcome of parsing something without throwing: either the parsed value, or the reason parsing failed and
+ * where in the input it failed. Returned by {@link DomainRange#tryParse(CharSequence, char)}. Immutable.
+ */
+@Getter
+@ToString
+public final class ParseResult<T> {
+    
+    /** The parsed value, or null if parsing failed */
+    private final T value;
+    
+    /** Why parsing failed, or null if it succeeded */
+    private final String error;
+    
+    /** The character offset in the input where parsing failed, or -1 if it succeeded */
+    private final int errorOffset;
+    
+    /** Whether parsing failed because an interval had equal bounds (ex. 3 < x < 3) */
+    private final boolean equalBounds;
+    
+    private ParseResult(T value, String error, int errorOffset, boolean equalBounds) {
+        this.value = value;
+        this.error = error;
+        this.errorOffset = errorOffset;
+        this.equalBounds = equalBounds;
+    }
+    
+    static <T> ParseResult<T> success(T value) {
+        return new ParseResult<>(value, null, -1, false);
+    }
+    
+    static <T> ParseResult<T> failure(String error, int errorOffset, boolean equalBounds) {
+        return new ParseResult<>(null, error, errorOffset, equalBounds);
+    }
+    
+    public boolean isSuccess() {
+        return value != null;
+    }
+    
+    /**
+     * Get the parsed value, throwing the exception parsing would have thrown if it failed.
+     * @throws ParseException if the input was malformed.
+     * @throws Interval.EqualBoundsException if any interval had equal bounds.
+     */
+    public T getOrThrow() throws ParseException, Interval.EqualBoundsException {
+        if (value != null) return value;
+        if (equalBounds) throw new Interval.EqualBoundsException(error);
+        throw new ParseException(error, errorOffset);
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,55 @@
+package ca.keal.raomk.grading;
+
+import ca.keal.raomk.dr.DomainRange;
+import ca.keal.raomk.level.Level;
+import ca.keal.raomk.level.LevelRegistry;
+import lombok.NonNull;
+
+/**
+ * The victory domain and range of each level, by level number. A null domain or range means the box has to be left
+ * empty, just like in the game. Immutable.
+ */
+public final class AnswerKey {
+    
+    private final DomainRange[] domains;
+    private final DomainRange[] ranges;
+    
+    private AnswerKey(DomainRange[] domains, DomainRange[] ranges) {
+        this.domains = domains;
+        this.ranges = ranges;
+    }
+    
+    /** The answers to the game's levels. */
+    public static AnswerKey forGame() {
+        return of(LevelRegistry.load().getAll());
+    }
+    
+    /** The answers to {@code levels}, numbered in the order given starting at 0. */
+    public static AnswerKey of(@NonNull Level... levels) {
+        DomainRange[] domains = new DomainRange[levels.length];
+        DomainRange[] ranges = new DomainRange[levels.length];
+        for (int i = 0; i < levels.length; i++) {
+            domains[i] = levels[i].getVictoryDomain();
+            ranges[i] = levels[i].getVictoryRange();
+        }
+        return new AnswerKey(domains, ranges);
+    }
+    
+    /** The number of levels; level numbers go from 0 to this minus 1. */
+    public int size() {
+        return domains.length;
+    }
+    
+    public boolean hasLevel(int level) {
+        return level >= 0 && level < domains.length;
+    }
+    
+    public DomainRange getDomain(int level) {
+        return domains[level];
+    }
+    
+    public DomainRange getRange(int level) {
+        return ranges[level];
+    }
+    
+}
\ No newline at end of file
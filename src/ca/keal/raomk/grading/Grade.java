@@ -0,0 +1,28 @@
+package ca.keal.raomk.grading;
+
+import lombok.Data;
+
+/**
+ * The verdict for one submission, and why if it's not obvious.
+ */
+@Data
+public class Grade {
+    
+    /** Line number of the submission in its file, starting at 1 */
+    private final long line;
+    
+    /** The submission's level number, or -1 if it couldn't be read */
+    private final int level;
+    
+    private final Verdict verdict;
+    
+    /** The parse error for INVALID_* and MALFORMED, otherwise empty */
+    private final String detail;
+    
+    /** Written as line, level, verdict and detail separated by tabs. */
+    @Override
+    public String toString() {
+        return line + "\t" + level + "\t" + verdict + "\t" + detail;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,180 @@
+package ca.keal.raomk.grading;
+
+import ca.keal.raomk.dr.DomainRange;
+import ca.keal.raomk.dr.ParseResult;
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Grades submissions against an {@link AnswerKey}, many at a time. Submissions are read from a file in chunks, each
+ * chunk is graded on a fork-join pool, and the grades are written back out in the same order as the submissions.
+ * Only a few chunks are in memory at once, so files of any size can be graded. Doesn't use JavaFX.
+ * <p>
+ * Each line of the file is a submission: the level number, the domain, and the range, separated by tabs. An empty
+ * domain or range means the box was left empty. Blank lines are skipped. Each line written out is a {@link Grade}.
+ */
+public final class GradingEngine {
+    
+    private static final int CHUNK_SIZE = 4096;
+    
+    private final AnswerKey answerKey;
+    private final int parallelism;
+    
+    public GradingEngine(@NonNull AnswerKey answerKey, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be positive");
+        }
+        this.answerKey = answerKey;
+        this.parallelism = parallelism;
+    }
+    
+    /** Grade every submission in {@code in}, writing a grade for each to {@code out}. */
+    public GradingStats grade(@NonNull BufferedReader in, @NonNull Writer out) throws IOException {
+        long start = System.nanoTime();
+        GradingStats stats = new GradingStats();
+        ForkJoinPool pool = new ForkJoinPool(parallelism);
+        try {
+            // Enough chunks in flight to keep every thread busy while the oldest one is written
+            Deque<Future<Chunk>> inFlight = new ArrayDeque<>();
+            long lineNumber = 0;
+            List<String> lines = new ArrayList<>(CHUNK_SIZE);
+            long firstLine = 1;
+            
+            String line;
+            while ((line = in.readLine()) != null) {
+                lineNumber++;
+                if (lines.isEmpty()) firstLine = lineNumber;
+                lines.add(line);
+                
+                if (lines.size() == CHUNK_SIZE) {
+                    inFlight.add(submit(pool, firstLine, lines));
+                    lines = new ArrayList<>(CHUNK_SIZE);
+                    if (inFlight.size() > 2 * parallelism) {
+                        write(inFlight.remove(), out, stats);
+                    }
+                }
+            }
+            if (!lines.isEmpty()) {
+                inFlight.add(submit(pool, firstLine, lines));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.remove(), out, stats);
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        stats.setElapsedNanos(System.nanoTime() - start);
+        return stats;
+    }
+    
+    private Future<Chunk> submit(ForkJoinPool pool, long firstLine, List<String> lines) {
+        return pool.submit(() -> gradeChunk(firstLine, lines));
+    }
+    
+    private static void write(Future<Chunk> future, Writer out, GradingStats stats) throws IOException {
+        Chunk chunk;
+        try {
+            chunk = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while grading");
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Grading failed", e.getCause());
+        }
+        
+        out.write(chunk.output.toString());
+        stats.add(chunk.stats);
+    }
+    
+    private Chunk gradeChunk(long firstLine, List<String> lines) {
+        Chunk chunk = new Chunk();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.trim().isEmpty()) continue;
+            
+            long start = System.nanoTime();
+            Grade grade = grade(firstLine + i, line);
+            chunk.stats.getLatencies().record(System.nanoTime() - start);
+            
+            chunk.stats.count(grade.getVerdict());
+            chunk.output.append(grade).append('\n');
+        }
+        return chunk;
+    }
+    
+    /** Grade one submission: the level number, domain and range separated by tabs. */
+    public Grade grade(long lineNumber, @NonNull String line) {
+        String[] fields = line.split("\t", -1);
+        if (fields.length != 3) {
+            return new Grade(lineNumber, -1, Verdict.MALFORMED, "Expected 3 fields but found " + fields.length);
+        }
+        
+        int level;
+        try {
+            level = Integer.parseInt(fields[0].trim());
+        } catch (NumberFormatException e) {
+            return new Grade(lineNumber, -1, Verdict.MALFORMED, "Level is not a number: " + fields[0]);
+        }
+        if (!answerKey.hasLevel(level)) {
+            return new Grade(lineNumber, level, Verdict.UNKNOWN_LEVEL, "");
+        }
+        
+        // An empty box is null, like it is in the game
+        DomainRange domain = null;
+        if (!fields[1].trim().isEmpty()) {
+            ParseResult<DomainRange> result = DomainRange.tryParse(fields[1], 'x');
+            if (!result.isSuccess()) {
+                return new Grade(lineNumber, level, Verdict.INVALID_DOMAIN, result.getError());
+            }
+            domain = result.getValue();
+        }
+        DomainRange range = null;
+        if (!fields[2].trim().isEmpty()) {
+            ParseResult<DomainRange> result = DomainRange.tryParse(fields[2], 'y');
+            if (!result.isSuccess()) {
+                return new Grade(lineNumber, level, Verdict.INVALID_RANGE, result.getError());
+            }
+            range = result.getValue();
+        }
+        
+        boolean domainCorrect = isEqual(domain, answerKey.getDomain(level));
+        boolean rangeCorrect = isEqual(range, answerKey.getRange(level));
+        Verdict verdict;
+        if (domainCorrect && rangeCorrect) {
+            verdict = Verdict.CORRECT;
+        } else if (rangeCorrect) {
+            verdict = Verdict.WRONG_DOMAIN;
+        } else if (domainCorrect) {
+            verdict = Verdict.WRONG_RANGE;
+        } else {
+            verdict = Verdict.WRONG_DOMAIN_AND_RANGE;
+        }
+        return new Grade(lineNumber, level, verdict, "");
+    }
+    
+    // Same as the game's check
+    private static boolean isEqual(DomainRange one, DomainRange two) {
+        if (one == null) return two == null;
+        return one.equals(two);
+    }
+    
+    /** The grades for a chunk of submissions, ready to be written */
+    private static class Chunk {
+        private final StringBuilder output = new StringBuilder();
+        private final GradingStats stats = new GradingStats();
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,35 @@
+package ca.keal.raomk.grading;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Grades a file of submissions from the command line, without starting the game:
+ * <pre>
+ *     java -cp ... ca.keal.raomk.grading.GradingMain submissions.tsv grades.tsv [threads]
+ * </pre>
+ * The stats are printed once it's done. See {@link GradingEngine} for the file formats.
+ */
+public final class GradingMain {
+    
+    private GradingMain() {}
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2 && args.length != 3) {
+            System.err.println("Usage: GradingMain <submissions file> <grades file> [threads]");
+            System.exit(2);
+        }
+        int threads = args.length == 3 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        
+        GradingEngine engine = new GradingEngine(AnswerKey.forGame(), threads);
+        try (BufferedReader in = Files.newBufferedReader(Paths.get(args[0]), StandardCharsets.UTF_8);
+             BufferedWriter out = Files.newBufferedWriter(Paths.get(args[1]), StandardCharsets.UTF_8)) {
+            System.out.println(engine.grade(in, out));
+        }
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ca.keal.raomk.grading;
+
+import lombok.Getter;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * How many submissions got each verdict, how long grading took overall, and how long each submission took.
+ */
+public final class GradingStats {
+    
+    private final long[] verdictCounts = new long[Verdict.values().length];
+    
+    /** Time taken to parse and check each submission */
+    @Getter private final LatencyHistogram latencies = new LatencyHistogram();
+    
+    /** Wall-clock time for the whole run */
+    @Getter private long elapsedNanos = 0;
+    
+    void count(Verdict verdict) {
+        verdictCounts[verdict.ordinal()]++;
+    }
+    
+    /** Add the counts and latencies from {@code other} to this. */
+    void add(GradingStats other) {
+        for (int i = 0; i < verdictCounts.length; i++) {
+            verdictCounts[i] += other.verdictCounts[i];
+        }
+        latencies.add(other.latencies);
+    }
+    
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public long getRecords() {
+        long records = 0;
+        for (long count : verdictCounts) records += count;
+        return records;
+    }
+    
+    public long getCount(Verdict verdict) {
+        return verdictCounts[verdict.ordinal()];
+    }
+    
+    public Map<Verdict, Long> getCounts() {
+        Map<Verdict, Long> counts = new EnumMap<>(Verdict.class);
+        for (Verdict verdict : Verdict.values()) {
+            counts.put(verdict, getCount(verdict));
+        }
+        return counts;
+    }
+    
+    public double getRecordsPerSecond() {
+        return elapsedNanos == 0 ? 0 : getRecords() * 1e9 / elapsedNanos;
+    }
+    
+    /** A human-readable report, one stat per line. */
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("Records: %d in %.3f s (%.0f records/s)%n",
+                getRecords(), elapsedNanos / 1e9, getRecordsPerSecond()));
+        for (Verdict verdict : Verdict.values()) {
+            report.append(String.format("  %-22s %d%n", verdict, getCount(verdict)));
+        }
+        report.append(String.format("Latency per record (us): p50 %.2f, p90 %.2f, p99 %.2f, p99.9 %.2f, max %.2f",
+                latencies.getPercentile(50) / 1e3, latencies.getPercentile(90) / 1e3,
+                latencies.getPercentile(99) / 1e3, latencies.getPercentile(99.9) / 1e3, latencies.getMax() / 1e3));
+        return report.toString();
+    }
+    
+}
\ No newline at end of file
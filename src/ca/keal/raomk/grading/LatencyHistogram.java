@@ -0,0 +1,73 @@
+package ca.keal.raomk.grading;
+
+/**
+ * Counts of latencies in nanoseconds, in buckets that are each within 1/16 (about 6%) of their value, so percentiles
+ * can be worked out without keeping every latency. Not thread-safe; give each thread its own and {@link #add} them.
+ */
+public final class LatencyHistogram {
+    
+    // Each power of two is split into 2^SUB_BUCKET_BITS linear buckets
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int NUM_BUCKETS = (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+    
+    private final long[] counts = new long[NUM_BUCKETS];
+    private long count = 0;
+    private long max = 0;
+    
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[bucketFor(nanos)]++;
+        count++;
+        max = Math.max(max, nanos);
+    }
+    
+    /** Add all of {@code other}'s latencies to this. */
+    public void add(LatencyHistogram other) {
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        max = Math.max(max, other.max);
+    }
+    
+    public long getCount() {
+        return count;
+    }
+    
+    public long getMax() {
+        return max;
+    }
+    
+    /**
+     * The latency that {@code percentile} percent of latencies are at or below, rounded up to the top of its bucket.
+     * 0 if there are none.
+     */
+    public long getPercentile(double percentile) {
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= rank) return Math.min(bucketTop(i), max);
+        }
+        return max;
+    }
+    
+    // Values below SUB_BUCKETS get a bucket each; above that, the top SUB_BUCKET_BITS + 1 bits pick the bucket
+    private static int bucketFor(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+    }
+    
+    private static long bucketTop(int bucket) {
+        if (bucket < SUB_BUCKETS) return bucket;
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        long top = ((long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS)) - 1;
+        return top < 0 ? Long.MAX_VALUE : top; // the very last bucket overflows
+    }
+    
+}
\ No newline at end of file
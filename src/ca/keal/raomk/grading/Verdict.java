@@ -0,0 +1,25 @@
+package ca.keal.raomk.grading;
+
+/**
+ * The outcome of grading one submission.
+ */
+public enum Verdict {
+    
+    /** Both the domain and range match the level's answer */
+    CORRECT,
+    
+    WRONG_DOMAIN,
+    WRONG_RANGE,
+    WRONG_DOMAIN_AND_RANGE,
+    
+    /** The domain or range doesn't parse - these are checked before the answer is compared */
+    INVALID_DOMAIN,
+    INVALID_RANGE,
+    
+    /** There's no level with the submission's level number */
+    UNKNOWN_LEVEL,
+    
+    /** The record itself isn't level, domain and range separated by tabs */
+    MALFORMED
+    
+}
\ No newline at end of file
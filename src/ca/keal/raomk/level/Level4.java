@@ -6,6 +6,9 @@ import ca.keal.raomk.ranch.Cow;
 import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Parabola opening up
 public class Level4 extends Level {
     
@@ -23,12 +26,14 @@ public class Level4 extends Level {
                 "I'll tell you something else that's fun: the equation of this parabola is y = 0.2x² - 1."
         );
         
+        List<Cow> cows = new ArrayList<>();
         for (int x = -500; x <= 500; x++) {
             double y = quadraticFunction(x);
             if (y < 500) {
-                ranch.addCow(new Cow(new Position(x, y), x == 0 ? Cow.DIN : Cow.NORMAL));
+                cows.add(new Cow(new Position(x, y), x == 0 ? Cow.DIN : Cow.NORMAL));
             }
         }
+        ranch.addCows(cows);
     }
     
     private double quadraticFunction(double x) {
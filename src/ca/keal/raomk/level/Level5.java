@@ -5,6 +5,9 @@ import ca.keal.raomk.ranch.Cow;
 import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Parabola opening downwards + restricted
 public class Level5 extends Level {
     
@@ -27,12 +30,14 @@ public class Level5 extends Level {
                         + "You'll make the connection."
         );
     
+        List<Cow> cows = new ArrayList<>();
         for (int x = -500; x <= 500; x++) {
             double y = quadraticFunction(x);
             if (y <= MAX_Y && y > -500) {
-                ranch.addCow(new Cow(new Position(x, y), y == MAX_Y ? Cow.SPIDER : Cow.NORMAL));
+                cows.add(new Cow(new Position(x, y), y == MAX_Y ? Cow.SPIDER : Cow.NORMAL));
             }
         }
+        ranch.addCows(cows);
     }
     
     private double quadraticFunction(double x) {
@@ -7,6 +7,9 @@ import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 import javafx.scene.image.Image;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Root curve restricted
 public class Level6 extends Level {
     
@@ -25,16 +28,18 @@ public class Level6 extends Level {
                 "This root curve ends just to the right. Drag the field over to see the end with your eyesight."
         );
         
+        List<Cow> cows = new ArrayList<>();
         for (double x = MIN_X; x <= MAX_X; x++) {
             double posY = rootCurvePositive(x);
             double negY = rootCurveNegative(x);
             Image cow = getCow(x);
             
-            ranch.addCow(new Cow(new Position(x, posY), cow));
+            cows.add(new Cow(new Position(x, posY), cow));
             if (negY != posY) {
-                ranch.addCow(new Cow(new Position(x, negY), cow));
+                cows.add(new Cow(new Position(x, negY), cow));
             }
         }
+        ranch.addCows(cows);
     }
     
     private static double rootCurvePositive(double x) {
@@ -8,6 +8,9 @@ import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 import javafx.scene.image.Image;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Sinusoidal function
 public class Level7 extends Level {
     
@@ -26,10 +29,12 @@ public class Level7 extends Level {
                 "In case you were wondering, I'm sure you'll agree: the function is y = 4sin(15x) + 3."
         );
         
+        List<Cow> cows = new ArrayList<>();
         for (int x = -500; x <= 500; x++) {
             double y = sinusoidalFunction(x);
-            ranch.addCow(new Cow(new Position(x, y), getCow(y)));
+            cows.add(new Cow(new Position(x, y), getCow(y)));
         }
+        ranch.addCows(cows);
     }
     
     private static double sinusoidalFunction(double x) {
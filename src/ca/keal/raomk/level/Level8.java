@@ -7,7 +7,9 @@ import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 import javafx.scene.image.Image;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 // Exponential function
 public class Level8 extends Level {
@@ -36,15 +38,24 @@ public class Level8 extends Level {
                 "And a final thing just before you're done: the cows' function is y = 3(1.3)^(x-2.5) - 1."
         );
         
-        for (double x = -500; x <= 500; x++) {
-            final double finalX = x; // frikkin java
-            if (Arrays.stream(INTERVALS).anyMatch(interval -> interval.contains(finalX))) {
-                double y = exponentialFunction(x);
+        // Find which x values are in the domain all at once
+        double[] xs = new double[1001];
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = i - 500;
+        }
+        boolean[] inDomain = new boolean[xs.length];
+        getVictoryDomain().contains(xs, inDomain);
+        
+        List<Cow> cows = new ArrayList<>();
+        for (int i = 0; i < xs.length; i++) {
+            if (inDomain[i]) {
+                double y = exponentialFunction(xs[i]);
                 if (y < 500) {
-                    ranch.addCow(new Cow(new Position(x, y), getCow(x)));
+                    cows.add(new Cow(new Position(xs[i], y), getCow(xs[i])));
                 }
             }
         }
+        ranch.addCows(cows);
     }
     
     private static double exponentialFunction(double x) {
@@ -7,6 +7,9 @@ import ca.keal.raomk.ranch.Position;
 import ca.keal.raomk.ranch.Ranch;
 import javafx.scene.image.Image;
 
+import java.util.ArrayList;
+import java.util.List;
+
 // Tangent graph, one period
 public class Level9 extends Level {
     
@@ -27,15 +30,17 @@ public class Level9 extends Level {
         );
         
         // More cows at the edges to better show the asymptote
-        for (double x = MIN_X; x <= MAX_X; x += 0.5) maybePlaceCow(ranch, x);
-        for (double x = MIN_X; x <= MIN_X + 0.65; x += 0.05) maybePlaceCow(ranch, x);
-        for (double x = MAX_X; x >= MAX_X - 0.65; x -= 0.05) maybePlaceCow(ranch, x);
+        List<Cow> cows = new ArrayList<>();
+        for (double x = MIN_X; x <= MAX_X; x += 0.5) maybePlaceCow(cows, x);
+        for (double x = MIN_X; x <= MIN_X + 0.65; x += 0.05) maybePlaceCow(cows, x);
+        for (double x = MAX_X; x >= MAX_X - 0.65; x -= 0.05) maybePlaceCow(cows, x);
+        ranch.addCows(cows);
     }
     
-    private static void maybePlaceCow(Ranch ranch, double x) {
+    private static void maybePlaceCow(List<Cow> cows, double x) {
         double y = tanFunction(x);
         if (!Double.isNaN(y) && y > -500 && y < 500) {
-            ranch.addCow(new Cow(new Position(x, y), getCow(y)));
+            cows.add(new Cow(new Position(x, y), getCow(y)));
         }
     }
     
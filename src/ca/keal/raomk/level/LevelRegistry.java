@@ -0,0 +1,153 @@
+package ca.keal.raomk.level;
+
+import lombok.NonNull;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+/**
+ * The levels of the game, in the order they're played. They're listed by class name in
+ * META-INF/services/ca.keal.raomk.level.Level, same as for a {@link java.util.ServiceLoader}, and each one is only
+ * made when it's first needed, or when it's warmed up ahead of time in the background. Adding levels doesn't make
+ * starting the game any slower. Thread-safe.
+ */
+public final class LevelRegistry {
+    
+    static final String INDEX = "META-INF/services/" + Level.class.getName();
+    
+    private final List<String> classNames;
+    private final ClassLoader classLoader;
+    private final Executor warmer;
+    
+    // Null until the level is asked for or warmed up
+    private final List<CompletableFuture<Level>> levels;
+    
+    LevelRegistry(@NonNull List<String> classNames, @NonNull ClassLoader classLoader, @NonNull Executor warmer) {
+        this.classNames = new ArrayList<>(classNames);
+        this.classLoader = classLoader;
+        this.warmer = warmer;
+        levels = new ArrayList<>(Collections.nCopies(classNames.size(), null));
+    }
+    
+    /** The game's levels, from every index on the classpath. Warms levels up on a background thread. */
+    public static LevelRegistry load() {
+        ClassLoader classLoader = LevelRegistry.class.getClassLoader();
+        Executor warmer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "level-warmer");
+            thread.setDaemon(true); // don't keep the game open
+            return thread;
+        });
+        return new LevelRegistry(readIndex(classLoader), classLoader, warmer);
+    }
+    
+    /** The number of levels; level numbers go from 0 to this minus 1. */
+    public int size() {
+        return classNames.size();
+    }
+    
+    /** Level {@code number}, made now if it hasn't been already. Waits for it if it's being warmed up. */
+    public Level get(int number) {
+        if (number < 0 || number >= size()) {
+            throw new IndexOutOfBoundsException("No level " + number + " of " + size());
+        }
+        
+        CompletableFuture<Level> level;
+        boolean make = false;
+        synchronized (levels) {
+            level = levels.get(number);
+            if (level == null) {
+                level = new CompletableFuture<>();
+                levels.set(number, level);
+                make = true;
+            }
+        }
+        if (make) {
+            make(number, level);
+        }
+        
+        try {
+            return level.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+    
+    /** Make every level now, in order. */
+    public Level[] getAll() {
+        Level[] all = new Level[size()];
+        for (int i = 0; i < all.length; i++) {
+            all[i] = get(i);
+        }
+        return all;
+    }
+    
+    /**
+     * Start making level {@code number} in the background, so it's ready by the time it's needed, e.g. the next level
+     * while this one's being played. Does nothing if there's no such level or it's already made.
+     */
+    public void warm(int number) {
+        if (number < 0 || number >= size()) return;
+        
+        CompletableFuture<Level> level;
+        synchronized (levels) {
+            if (levels.get(number) != null) return;
+            level = new CompletableFuture<>();
+            levels.set(number, level);
+        }
+        warmer.execute(() -> make(number, level));
+    }
+    
+    /** Whether level {@code number} has been made, or started being made. */
+    boolean isStarted(int number) {
+        synchronized (levels) {
+            return levels.get(number) != null;
+        }
+    }
+    
+    private void make(int number, CompletableFuture<Level> level) {
+        try {
+            level.complete(Class.forName(classNames.get(number), true, classLoader)
+                    .asSubclass(Level.class).getDeclaredConstructor().newInstance());
+        } catch (ReflectiveOperationException | RuntimeException | LinkageError e) {
+            level.completeExceptionally(new IllegalStateException("Couldn't make level " + number + ", "
+                    + classNames.get(number), e));
+        }
+    }
+    
+    // Class names, one per line; anything after a # is a comment
+    static List<String> readIndex(ClassLoader classLoader) {
+        List<String> classNames = new ArrayList<>();
+        try {
+            Enumeration<URL> indexes = classLoader.getResources(INDEX);
+            while (indexes.hasMoreElements()) {
+                try (BufferedReader in = new BufferedReader(new InputStreamReader(indexes.nextElement().openStream(),
+                        StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = in.readLine()) != null) {
+                        int comment = line.indexOf('#');
+                        String className = (comment < 0 ? line : line.substring(0, comment)).trim();
+                        if (!className.isEmpty() && !classNames.contains(className)) {
+                            classNames.add(className);
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return classNames;
+    }
+    
+}
\ No newline at end of file
@@ -19,8 +19,10 @@ public class Cow extends FieldItem {
     public static final Image DIN = Utils.getImageAsset("cow/din");
     public static final Image SPIDER = Utils.getImageAsset("cow/spider");
     
+    static final double SIZE = 40;
+    
     public Cow(Position position, Image image) {
-        super(position, image, 40, 40);
+        super(position, image, SIZE, SIZE);
     }
     
 }
\ No newline at end of file
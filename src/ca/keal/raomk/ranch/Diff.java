@@ -0,0 +1,61 @@
+package ca.keal.raomk.ranch;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * What was added to and taken out of a collection, counting duplicates, according to equals(). Working it out is
+ * linear in the size of the collections, but anything using it only has to deal with what changed. Immutable.
+ */
+@Getter
+final class Diff<T> {
+    
+    private final List<T> added;
+    private final List<T> removed;
+    
+    private Diff(List<T> added, List<T> removed) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+    
+    static <T> Diff<T> of(@NonNull Collection<? extends T> before, @NonNull Collection<? extends T> after) {
+        // How many of each item are left over from before once everything still in after is taken out
+        Map<T, Integer> leftOver = new HashMap<>();
+        for (T item : before) {
+            leftOver.merge(item, 1, Integer::sum);
+        }
+        
+        List<T> added = new ArrayList<>();
+        for (T item : after) {
+            Integer count = leftOver.get(item);
+            if (count == null) {
+                added.add(item);
+            } else if (count == 1) {
+                leftOver.remove(item);
+            } else {
+                leftOver.put(item, count - 1);
+            }
+        }
+        
+        List<T> removed = new ArrayList<>();
+        for (Map.Entry<T, Integer> entry : leftOver.entrySet()) {
+            for (int i = 0; i < entry.getValue(); i++) {
+                removed.add(entry.getKey());
+            }
+        }
+        
+        return new Diff<>(added, removed);
+    }
+    
+    boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package ca.keal.raomk.ranch;
+
+import lombok.NonNull;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Keeps track of which {@link Layer}s have changed since they were last painted, so a repaint only paints those.
+ * Everything starts out dirty, since nothing has been painted yet. Repaints can be put off until the end of a
+ * {@link #batch(Runnable)}, so a lot of changes are painted once, in the next frame. Also counts how many times each
+ * layer was repainted, and how many times it was left alone when redrawing everything would have repainted it.
+ */
+final class DirtyLayers {
+    
+    private static final Layer[] LAYERS = Layer.values();
+    
+    private final Consumer<Layer> painter;
+    private final Runnable requestRepaint;
+    private final Set<Layer> dirty = EnumSet.allOf(Layer.class);
+    private int batchDepth = 0;
+    
+    private final long[] repaints = new long[LAYERS.length];
+    private final long[] repaintsAvoided = new long[LAYERS.length];
+    
+    /**
+     * {@code painter} paints a layer. {@code requestRepaint} has to make {@link #repaint()} be called later, e.g. in
+     * the next frame.
+     */
+    DirtyLayers(@NonNull Consumer<Layer> painter, @NonNull Runnable requestRepaint) {
+        this.painter = painter;
+        this.requestRepaint = requestRepaint;
+    }
+    
+    /** Mark layers as needing a repaint. */
+    void mark(@NonNull Layer... layers) {
+        for (Layer layer : layers) {
+            dirty.add(layer);
+        }
+    }
+    
+    void markAll() {
+        dirty.addAll(EnumSet.allOf(Layer.class));
+    }
+    
+    boolean isDirty(@NonNull Layer layer) {
+        return dirty.contains(layer);
+    }
+    
+    /**
+     * Paint each dirty layer from bottom to top and mark them clean, and return how many there were. In a batch, this
+     * does nothing until the batch is over. If nothing is dirty, no repaint would have happened anyway, so none are
+     * counted as avoided.
+     */
+    int repaint() {
+        if (batchDepth > 0 || dirty.isEmpty()) return 0;
+        
+        int painted = 0;
+        for (Layer layer : LAYERS) {
+            if (dirty.remove(layer)) {
+                painter.accept(layer);
+                repaints[layer.ordinal()]++;
+                painted++;
+            } else {
+                repaintsAvoided[layer.ordinal()]++;
+            }
+        }
+        return painted;
+    }
+    
+    /**
+     * Run {@code changes}, then ask for the layers they changed to be repainted once at the end. Batches can be
+     * nested; only the outermost one asks.
+     */
+    void batch(@NonNull Runnable changes) {
+        batchDepth++;
+        try {
+            changes.run();
+        } finally {
+            batchDepth--;
+            if (batchDepth == 0 && !dirty.isEmpty()) {
+                requestRepaint.run();
+            }
+        }
+    }
+    
+    long getRepaints(@NonNull Layer layer) {
+        return repaints[layer.ordinal()];
+    }
+    
+    long getRepaintsAvoided(@NonNull Layer layer) {
+        return repaintsAvoided[layer.ordinal()];
+    }
+    
+    /** Total repaints of all layers. */
+    long getRepaints() {
+        long total = 0;
+        for (long count : repaints) total += count;
+        return total;
+    }
+    
+    /** Total repaints of all layers that were avoided. */
+    long getRepaintsAvoided() {
+        long total = 0;
+        for (long count : repaintsAvoided) total += count;
+        return total;
+    }
+    
+}
\ No newline at end of file
@@ -2,9 +2,11 @@ package ca.keal.raomk.ranch;
 
 import ca.keal.raomk.Utils;
 import ca.keal.raomk.dr.Interval;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.paint.Color;
 import lombok.Data;
 
 import java.util.ArrayList;
@@ -13,25 +15,37 @@ import java.util.List;
 @Data
 public class Fence {
     
-    private static final Image[] ARROWS = {
-            getArrowImage("right_exclusive"),
-            getArrowImage("right_inclusive"),
-            getArrowImage("left_exclusive"),
-            getArrowImage("left_inclusive"),
-            getArrowImage("up_exclusive"),
-            getArrowImage("up_inclusive"),
-            getArrowImage("down_exclusive"),
-            getArrowImage("down_inclusive")
-    };
-    private static final double ARROW_LENGTH = 10;
-    private static final double ARROW_BUFFER = 2.5;
-    
-    private static Image getArrowImage(String name) {
-        return Utils.getImageAsset("fence_arrow/" + name);
+    // The images are only loaded when a fence is first drawn, so fences can be made and compared without them. Class
+    // initialization loads them once, whichever thread gets there first.
+    private static final class Images {
+        
+        private static final Image VERTICAL = Utils.getImageAsset("fence_vertical");
+        private static final Image HORIZONTAL = Utils.getImageAsset("fence_horizontal");
+        
+        private static final Image[] ARROWS = {
+                getArrowImage("right_exclusive"),
+                getArrowImage("right_inclusive"),
+                getArrowImage("left_exclusive"),
+                getArrowImage("left_inclusive"),
+                getArrowImage("up_exclusive"),
+                getArrowImage("up_inclusive"),
+                getArrowImage("down_exclusive"),
+                getArrowImage("down_inclusive")
+        };
+        
+        private static Image getArrowImage(String name) {
+            return Utils.getImageAsset("fence_arrow/" + name);
+        }
+        
     }
     
     private static final double PCT_GRID_LINE_GAP_FENCE_TAKES_UP = 0.85;
     
+    // Zoomed out so far that a segment is smaller than this, a fence is just a line
+    private static final double MIN_SEGMENT_SIZE = 4;
+    private static final Color LINE_COLOR = Color.rgb(0x6b, 0x45, 0x20);
+    private static final double LINE_WIDTH = 2;
+    
     private final Orientation orientation;
     private final double coord;
     private final boolean upperBound;
@@ -56,74 +70,78 @@ public class Fence {
     }
     
     public void draw(Canvas canvas, RanchView view) {
-        double heightOneSegment = PCT_GRID_LINE_GAP_FENCE_TAKES_UP * view.getGridLineGap() * orientation.scaleFactor;
-        double widthOneSegment = (orientation.image.getWidth() / orientation.image.getHeight()) * heightOneSegment;
+        double heightOneSegment = getSegmentHeight(orientation, view.getGridLineGap());
+        double widthOneSegment = getSegmentWidth(heightOneSegment);
         
         if (!isOnScreen(canvas, view, Math.max(heightOneSegment, widthOneSegment))) return;
         
-        GraphicsContext gc = canvas.getGraphicsContext2D();
-        if (orientation == Orientation.HORIZONTAL) {
-            // horizontal fences for x > 0
-            for (double x = view.getOriginX(); x < canvas.getWidth() + widthOneSegment; x += widthOneSegment) {
-                drawHorizontal(x, gc, view, widthOneSegment, heightOneSegment);
-            }
-            
-            // horizontal fences for x < 0
-            for (double x = view.getOriginX(); x > -widthOneSegment; x -= widthOneSegment) {
-                drawHorizontal(x, gc, view, widthOneSegment, heightOneSegment);
-            }
-        } else {
-            // vertical fences for y > 0
-            for (double y = view.getOriginY(); y < canvas.getHeight() + heightOneSegment; y += heightOneSegment) {
-                drawVertical(y, gc, view, widthOneSegment, heightOneSegment);
-            }
-            
-            // vertical fences for y < 0
-            for (double y = view.getOriginY(); y > -heightOneSegment; y -= heightOneSegment) {
-                drawVertical(y, gc, view, widthOneSegment, heightOneSegment);
-            }
+        // Thousands of tiny segments would take as long to draw as normal ones, and the arrows couldn't be seen
+        if (isLine(widthOneSegment, heightOneSegment)) {
+            drawLine(canvas, view);
+            return;
         }
+        
+        // The whole fence is one strip image repeated along it
+        getStrip(canvas, widthOneSegment, heightOneSegment).draw(canvas, view, getCanvasLine(view));
     }
     
-    private void drawHorizontal(double x, GraphicsContext gc, RanchView view,
-                                double widthOneSegment, double heightOneSegment) {
-        double adjustedY = Position.cartesianToCanvasY(coord, view) - heightOneSegment;
-        
-        // draw arrow
-        Image arrow = getArrow();
-        double arrowHeight = ARROW_LENGTH;
-        double arrowWidth = arrowHeight * (arrow.getWidth() / arrow.getHeight());
-        double arrowCenteredX = x + widthOneSegment/2 - arrowWidth/2;
-        double arrowY = adjustedY;
-        if (upperBound) {
-            arrowY += heightOneSegment + ARROW_BUFFER;
+    /** The band of the canvas the fence is drawn in, all the way across it, rounded out to whole pixels. */
+    Rectangle2D getBounds(Canvas canvas, RanchView view) {
+        double heightOneSegment = getSegmentHeight(orientation, view.getGridLineGap());
+        double widthOneSegment = getSegmentWidth(heightOneSegment);
+        
+        double start;
+        double size;
+        if (isLine(widthOneSegment, heightOneSegment)) {
+            start = getCanvasLine(view) - LINE_WIDTH/2;
+            size = LINE_WIDTH;
         } else {
-            arrowY -= arrowHeight + ARROW_BUFFER;
+            FenceStrip.Layout layout = getStrip(canvas, widthOneSegment, heightOneSegment).getLayout();
+            start = getCanvasLine(view) + layout.getAcrossStart();
+            size = layout.getAcrossSize();
         }
-        gc.drawImage(arrow, arrowCenteredX, arrowY, arrowWidth, arrowHeight);
         
-        gc.drawImage(orientation.image, x, adjustedY, widthOneSegment, heightOneSegment);
+        double min = Math.floor(start);
+        double max = Math.ceil(start + size);
+        return orientation == Orientation.HORIZONTAL ? new Rectangle2D(0, min, canvas.getWidth(), max - min)
+                : new Rectangle2D(min, 0, max - min, canvas.getHeight());
+    }
+    
+    /** How tall each segment of a fence is drawn with that gap between grid lines. */
+    static double getSegmentHeight(Orientation orientation, double gridLineGap) {
+        return PCT_GRID_LINE_GAP_FENCE_TAKES_UP * gridLineGap * orientation.scaleFactor;
     }
     
-    private void drawVertical(double y, GraphicsContext gc, RanchView view,
-                              double widthOneSegment, double heightOneSegment) {
-        double adjustedX = Position.cartesianToCanvasX(coord, view) - (widthOneSegment / 2);
-        double adjustedY = y - heightOneSegment;
-        
-        // draw arrow
-        Image arrow = getArrow();
-        double arrowWidth = ARROW_LENGTH;
-        double arrowHeight = arrowWidth / (arrow.getWidth() / arrow.getHeight());
-        double arrowX = adjustedX;
-        if (upperBound) {
-            arrowX -= arrowWidth + ARROW_BUFFER;
+    private double getSegmentWidth(double heightOneSegment) {
+        return (orientation.getImage().getWidth() / orientation.getImage().getHeight()) * heightOneSegment;
+    }
+    
+    private static boolean isLine(double widthOneSegment, double heightOneSegment) {
+        return Math.min(widthOneSegment, heightOneSegment) < MIN_SEGMENT_SIZE;
+    }
+    
+    private FenceStrip getStrip(Canvas canvas, double widthOneSegment, double heightOneSegment) {
+        return FenceStrip.get(orientation.getImage(), widthOneSegment, heightOneSegment, getArrow(),
+                orientation == Orientation.HORIZONTAL, upperBound, OutputScale.of(canvas));
+    }
+    
+    // The canvas y of a horizontal fence, or the canvas x of a vertical one
+    private double getCanvasLine(RanchView view) {
+        return orientation == Orientation.HORIZONTAL
+                ? Position.cartesianToCanvasY(coord, view) : Position.cartesianToCanvasX(coord, view);
+    }
+    
+    private void drawLine(Canvas canvas, RanchView view) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.setStroke(LINE_COLOR);
+        gc.setLineWidth(LINE_WIDTH);
+        if (orientation == Orientation.HORIZONTAL) {
+            double y = Position.cartesianToCanvasY(coord, view);
+            gc.strokeLine(0, y, canvas.getWidth(), y);
         } else {
-            arrowX += widthOneSegment + ARROW_BUFFER;
+            double x = Position.cartesianToCanvasX(coord, view);
+            gc.strokeLine(x, 0, x, canvas.getHeight());
         }
-        double arrowCenteredY = y + heightOneSegment/2 - arrowHeight/2;
-        gc.drawImage(arrow, arrowX, arrowCenteredY, arrowWidth, arrowHeight);
-        
-        gc.drawImage(orientation.image, adjustedX, adjustedY, widthOneSegment, heightOneSegment);
     }
     
     private boolean isOnScreen(Canvas canvas, RanchView view, double buffer) {
@@ -142,22 +160,24 @@ public class Fence {
         if (orientation == Orientation.HORIZONTAL) index += 4;
         if (upperBound) index += 2;
         if (inclusive) index++;
-        return ARROWS[index];
+        return Images.ARROWS[index];
     }
     
     enum Orientation {
         
-        VERTICAL("fence_vertical", 1.0),
-        HORIZONTAL("fence_horizontal", 0.65);
+        VERTICAL(1.0),
+        HORIZONTAL(0.65);
         
-        private final Image image;
         private final double scaleFactor; // adjust to make vertical and horizontal fences look the same size
         
-        Orientation(String path, double scaleFactor) {
-            image = Utils.getImageAsset(path);
+        Orientation(double scaleFactor) {
             this.scaleFactor = scaleFactor;
         }
         
+        private Image getImage() {
+            return this == VERTICAL ? Images.VERTICAL : Images.HORIZONTAL;
+        }
+        
     }
     
 }
\ No newline at end of file
@@ -0,0 +1,211 @@
+package ca.keal.raomk.ranch;
+
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import javafx.scene.paint.ImagePattern;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One period of a fence - a segment and its arrow - drawn once into an image, which is repeated along the fence as an
+ * {@link ImagePattern}. Drawing a fence is then one fillRect instead of two drawImages for every segment on the
+ * screen. Strips are cached for each kind of fence, size of segment and {@link OutputScale}, with the size rounded to
+ * whole pixels so zooming doesn't draw a new strip every frame. Must be used on the JavaFX application thread.
+ */
+final class FenceStrip {
+    
+    static final double ARROW_LENGTH = 10;
+    static final double ARROW_BUFFER = 2.5;
+    
+    // 8 kinds of fence, at a few zooms
+    private static final int CACHE_CAPACITY = 32;
+    
+    // Access order, so the eldest entry is the least recently used
+    private static final Map<Key, FenceStrip> CACHE = new LinkedHashMap<Key, FenceStrip>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, FenceStrip> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    
+    private static final SnapshotParameters SNAPSHOT_PARAMETERS = new SnapshotParameters();
+    private static Canvas scratch = null; // strips are drawn on this, then copied
+    
+    /** How many strips have been drawn, i.e. cache misses */
+    @Getter private static long renders = 0;
+    
+    static {
+        SNAPSHOT_PARAMETERS.setFill(Color.TRANSPARENT);
+    }
+    
+    @Getter private final Layout layout;
+    private final Image image;
+    
+    private FenceStrip(Layout layout, Image image) {
+        this.layout = layout;
+        this.image = image;
+    }
+    
+    /**
+     * The strip for a fence made of {@code segment} images drawn at segmentWidth by segmentHeight, each with an
+     * {@code arrow} on the side the fence lets cows through. The size is rounded to whole pixels, same as sprites.
+     * The image has as many pixels as the strip takes up on a screen with the given scale, so it isn't blurry there.
+     */
+    static FenceStrip get(@NonNull Image segment, double segmentWidth, double segmentHeight, @NonNull Image arrow,
+                          boolean horizontal, boolean upperBound, @NonNull OutputScale scale) {
+        Key key = new Key(segment, roundSize(segmentWidth), roundSize(segmentHeight), arrow, horizontal, upperBound,
+                scale);
+        FenceStrip strip = CACHE.get(key);
+        if (strip == null) {
+            strip = render(key);
+            CACHE.put(key, strip);
+        }
+        return strip;
+    }
+    
+    /**
+     * Draw the fence all the way across the canvas. {@code line} is the canvas y of a horizontal fence or the canvas
+     * x of a vertical one. The segments line up with the origin, same as the grid.
+     */
+    void draw(Canvas canvas, RanchView view, double line) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        double across = line + layout.acrossStart;
+        if (layout.horizontal) {
+            gc.setFill(new ImagePattern(image, view.getOriginX(), across, layout.period, layout.acrossSize, false));
+            gc.fillRect(0, across, canvas.getWidth(), layout.acrossSize);
+        } else {
+            gc.setFill(new ImagePattern(image, across, view.getOriginY(), layout.acrossSize, layout.period, false));
+            gc.fillRect(across, 0, layout.acrossSize, canvas.getHeight());
+        }
+    }
+    
+    private static int roundSize(double size) {
+        return Math.max(1, (int) Math.round(size));
+    }
+    
+    private static FenceStrip render(Key key) {
+        double arrowAspectRatio = key.arrow.getWidth() / key.arrow.getHeight();
+        double arrowWidth = key.horizontal ? ARROW_LENGTH * arrowAspectRatio : ARROW_LENGTH;
+        double arrowHeight = key.horizontal ? ARROW_LENGTH : ARROW_LENGTH / arrowAspectRatio;
+        Layout layout = Layout.of(key.horizontal, key.upperBound, key.segmentWidth, key.segmentHeight,
+                arrowWidth, arrowHeight);
+        
+        // The sprites are resampled to the screen pixels they cover, and drawn at their size on the canvas
+        double scaleX = key.scale.getX();
+        double scaleY = key.scale.getY();
+        Image segment = SpriteCache.SHARED.get(key.segment, key.segmentWidth * scaleX, key.segmentHeight * scaleY)
+                .getImage();
+        Image arrow = SpriteCache.SHARED.get(key.arrow, arrowWidth * scaleX, arrowHeight * scaleY).getImage();
+        
+        // The image is a whole number of screen pixels, and the pattern scales it back to the exact size
+        double width = key.horizontal ? layout.period : layout.acrossSize;
+        double height = key.horizontal ? layout.acrossSize : layout.period;
+        int imageWidth = (int) Math.ceil(width * scaleX);
+        int imageHeight = (int) Math.ceil(height * scaleY);
+        if (scratch == null) {
+            scratch = new Canvas();
+        }
+        scratch.setWidth(imageWidth);
+        scratch.setHeight(imageHeight);
+        
+        GraphicsContext gc = scratch.getGraphicsContext2D();
+        gc.clearRect(0, 0, imageWidth, imageHeight);
+        gc.save();
+        gc.scale(imageWidth / width, imageHeight / height);
+        
+        // Arrows wider than a segment stick out into the next ones, so they're drawn wrapped around the ends too
+        int wraps = (int) Math.ceil(layout.arrowAlongSize / layout.period);
+        for (int i = -wraps; i <= wraps; i++) {
+            double along = layout.arrowAlong + i * layout.period;
+            if (key.horizontal) {
+                gc.drawImage(arrow, along, layout.arrowAcross, arrowWidth, arrowHeight);
+            } else {
+                gc.drawImage(arrow, layout.arrowAcross, along, arrowWidth, arrowHeight);
+            }
+        }
+        if (key.horizontal) {
+            gc.drawImage(segment, 0, layout.segmentAcross, key.segmentWidth, key.segmentHeight);
+        } else {
+            gc.drawImage(segment, layout.segmentAcross, 0, key.segmentWidth, key.segmentHeight);
+        }
+        gc.restore();
+        
+        renders++;
+        return new FenceStrip(layout, scratch.snapshot(SNAPSHOT_PARAMETERS,
+                new WritableImage(imageWidth, imageHeight)));
+    }
+    
+    /**
+     * Where everything goes in a strip. Along is the direction the fence goes in, and across is the other direction;
+     * along starts at the start of a segment, and across starts at the edge of the strip.
+     */
+    @Data
+    static class Layout {
+        
+        private final boolean horizontal;
+        
+        /** The length of one segment */
+        private final double period;
+        
+        /** Where the strip starts relative to the fence's line, and how wide it is */
+        private final double acrossStart;
+        private final double acrossSize;
+        
+        private final double segmentAcross;
+        private final double arrowAcross;
+        private final double arrowAlong;
+        private final double arrowAlongSize;
+        
+        /**
+         * Same as fences have always been drawn: a horizontal fence sits on top of its line with arrows above or
+         * below, and a vertical one is centered on its line with arrows to the left or right. Arrows are in the middle
+         * of their segments.
+         */
+        static Layout of(boolean horizontal, boolean upperBound, double segmentWidth, double segmentHeight,
+                         double arrowWidth, double arrowHeight) {
+            double segmentStart;
+            double segmentSize;
+            double arrowStart;
+            double arrowSize;
+            if (horizontal) {
+                segmentStart = -segmentHeight;
+                segmentSize = segmentHeight;
+                arrowSize = arrowHeight;
+                arrowStart = upperBound ? ARROW_BUFFER : -segmentHeight - ARROW_BUFFER - arrowHeight;
+            } else {
+                segmentStart = -segmentWidth/2;
+                segmentSize = segmentWidth;
+                arrowSize = arrowWidth;
+                arrowStart = upperBound ? -segmentWidth/2 - ARROW_BUFFER - arrowWidth : segmentWidth/2 + ARROW_BUFFER;
+            }
+            
+            double start = Math.min(segmentStart, arrowStart);
+            double end = Math.max(segmentStart + segmentSize, arrowStart + arrowSize);
+            double period = horizontal ? segmentWidth : segmentHeight;
+            double arrowAlongSize = horizontal ? arrowWidth : arrowHeight;
+            return new Layout(horizontal, period, start, end - start, segmentStart - start, arrowStart - start,
+                    period/2 - arrowAlongSize/2, arrowAlongSize);
+        }
+        
+    }
+    
+    @Data
+    private static class Key {
+        private final Image segment; // Images are only equal to themselves
+        private final int segmentWidth;
+        private final int segmentHeight;
+        private final Image arrow;
+        private final boolean horizontal;
+        private final boolean upperBound;
+        private final OutputScale scale;
+    }
+    
+}
\ No newline at end of file
@@ -2,13 +2,10 @@ package ca.keal.raomk.ranch;
 
 import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
-import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
 
-@EqualsAndHashCode
-@AllArgsConstructor(access = AccessLevel.PROTECTED)
+@EqualsAndHashCode(exclude = {"sprite", "spriteScale"})
 abstract class FieldItem {
     
     @Getter private Position position;
@@ -17,28 +14,29 @@ abstract class FieldItem {
     private final double maxWidth;
     private final double maxHeight;
     
-    /** Draw the FieldItem. Note: draws it centered. */
+    // The image at the size it's drawn at, and the view scale it's for; not part of equals()
+    private Sprite sprite = null;
+    private double spriteScale;
+    
+    protected FieldItem(Position position, Image image, double maxWidth, double maxHeight) {
+        this.position = position;
+        this.image = image;
+        this.maxWidth = maxWidth;
+        this.maxHeight = maxHeight;
+    }
+    
+    /** Draw the FieldItem. Note: draws it centered, and scaled with the view. */
     void draw(Canvas canvas, RanchView view) {
-        double imageWidth = image.getWidth();
-        double imageHeight = image.getHeight();
-        double aspectRatio = imageWidth / imageHeight;
-        
         // don't let the width or height exceed maxWidth/maxHeight by setting one to it
-        double width, height;
-        if (imageWidth > imageHeight) {
-            width = maxWidth;
-            height = width / aspectRatio;
-        } else {
-            height = maxHeight;
-            width = height * aspectRatio;
+        // The size is rounded so zooming doesn't resample the image at every size in between
+        if (sprite == null || spriteScale != view.getScale()) {
+            spriteScale = view.getScale();
+            sprite = SpriteCache.SHARED.fit(image, Math.round(maxWidth * spriteScale),
+                    Math.round(maxHeight * spriteScale));
         }
         
-        if (position.isOnScreen(canvas, view, width, height)) {
-            // center the image on position
-            canvas.getGraphicsContext2D().drawImage(image,
-                    position.getCenteredCanvasX(view, width),
-                    position.getCenteredCanvasY(view, height),
-                    width, height);
+        if (position.isOnScreen(canvas, view, sprite.getWidth(), sprite.getHeight())) {
+            sprite.drawCentered(canvas.getGraphicsContext2D(), position.getCanvasX(view), position.getCanvasY(view));
         }
     }
     
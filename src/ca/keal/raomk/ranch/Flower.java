@@ -1,6 +1,7 @@
 package ca.keal.raomk.ranch;
 
 import ca.keal.raomk.Utils;
+import javafx.scene.canvas.Canvas;
 import javafx.scene.image.Image;
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
@@ -10,19 +11,39 @@ import java.util.Random;
 /**
  * A flower on the field.
  */
-@EqualsAndHashCode(callSuper = true)
+@EqualsAndHashCode(callSuper = true, exclude = "rank")
 @ToString
 class Flower extends FieldItem {
     
     private static final Image IMAGE1 = Utils.getImageAsset("flowers");
     private static final Image IMAGE2 = Utils.getImageAsset("flowers2");
     
-    private Flower(Position position, Image image) {
-        super(position, image, 33.33, 30);
+    static final double MAX_WIDTH = 33.33;
+    static final double MAX_HEIGHT = 30;
+    
+    // Zoomed out, only the flowers with a rank less than the view's scale squared are drawn, so the screen doesn't
+    // have any more flowers on it than at normal size. Not part of equals().
+    private final double rank;
+    
+    private Flower(Position position, Image image, double rank) {
+        super(position, image, MAX_WIDTH, MAX_HEIGHT);
+        this.rank = rank;
     }
     
     static Flower random(Position position, Random random) {
-        return new Flower(position, random.nextBoolean() ? IMAGE1 : IMAGE2);
+        return new Flower(position, random.nextBoolean() ? IMAGE1 : IMAGE2, random.nextDouble());
+    }
+    
+    /** Whether the flower is drawn in the view. */
+    boolean isShown(RanchView view) {
+        return rank < view.getScale() * view.getScale();
+    }
+    
+    @Override
+    void draw(Canvas canvas, RanchView view) {
+        if (isShown(view)) {
+            super.draw(canvas, view);
+        }
     }
     
 }
\ No newline at end of file
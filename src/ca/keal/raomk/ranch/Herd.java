@@ -0,0 +1,257 @@
+package ca.keal.raomk.ranch;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.WritableImage;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * All the cows on the ranch, stored as arrays of their x and y coordinates and which image they are, instead of as
+ * {@link Cow} objects. There can be hundreds of thousands of cows, so this takes a lot less memory, and drawing them
+ * is one loop over the arrays. The images are kept in a small palette, which starts out with the {@link Cow} images.
+ * Zoomed out far enough that a cow would be a few pixels, the herd is drawn as a map of how many cows are where.
+ */
+final class Herd {
+    
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int MAX_PALETTE_SIZE = 256; // so an index fits in a byte
+    
+    // Cows smaller than this on screen are drawn as a density map, with each cell of the map this many pixels
+    static final double MIN_SPRITE_SIZE = 8;
+    static final int DENSITY_CELL_SIZE = 3;
+    
+    // A cell with one cow is faint, and it gets more solid as more cows are in it
+    private static final int DENSITY_RGB = 0xffffff;
+    private static final int DENSITY_MIN_ALPHA = 0x60;
+    private static final int DENSITY_ALPHA_PER_COW = 0x30;
+    
+    private final List<Image> palette;
+    
+    // Cow i is at (xs[i], ys[i]) and looks like palette.get(sprites[i] & 0xff)
+    private double[] xs = new double[INITIAL_CAPACITY];
+    private double[] ys = new double[INITIAL_CAPACITY];
+    private byte[] sprites = new byte[INITIAL_CAPACITY];
+    private int size = 0;
+    
+    // The density map is drawn through two images taking turns, so an image isn't changed while it's still being drawn
+    private final WritableImage[] densityImages = new WritableImage[2];
+    private int nextDensityImage = 0;
+    private int[] densityPixels = new int[0];
+    
+    Herd() {
+        this(Arrays.asList(Cow.NORMAL, Cow.SURF, Cow.DIN, Cow.SPIDER));
+    }
+    
+    Herd(@NonNull List<Image> palette) {
+        this.palette = new ArrayList<>(palette);
+    }
+    
+    void add(@NonNull Cow cow) {
+        add(cow.getPosition().getX(), cow.getPosition().getY(), cow.getImage());
+    }
+    
+    void add(double x, double y, @NonNull Image image) {
+        add(x, y, paletteIndex(image));
+    }
+    
+    /** Add a cow that looks like the image at {@code sprite} in the palette. */
+    void add(double x, double y, int sprite) {
+        if (sprite < 0 || sprite >= palette.size()) {
+            throw new IndexOutOfBoundsException("No sprite " + sprite + " in a palette of " + palette.size());
+        }
+        if (size == xs.length) {
+            ensureCapacity(size + 1);
+        }
+        xs[size] = x;
+        ys[size] = y;
+        sprites[size] = (byte) sprite;
+        size++;
+    }
+    
+    /** Make room for at least {@code capacity} cows. Grows by at least half each time, so adding is O(1) on average. */
+    void ensureCapacity(int capacity) {
+        if (capacity <= xs.length) return;
+        int newCapacity = Math.max(capacity, xs.length + (xs.length >> 1));
+        xs = Arrays.copyOf(xs, newCapacity);
+        ys = Arrays.copyOf(ys, newCapacity);
+        sprites = Arrays.copyOf(sprites, newCapacity);
+    }
+    
+    /** Remove all the cows. Keeps the arrays, since the next level will probably have about as many. */
+    void clear() {
+        size = 0;
+    }
+    
+    int size() {
+        return size;
+    }
+    
+    int capacity() {
+        return xs.length;
+    }
+    
+    double getX(int i) {
+        checkIndex(i);
+        return xs[i];
+    }
+    
+    double getY(int i) {
+        checkIndex(i);
+        return ys[i];
+    }
+    
+    int getSprite(int i) {
+        checkIndex(i);
+        return sprites[i] & 0xff;
+    }
+    
+    List<Image> getPalette() {
+        return Collections.unmodifiableList(palette);
+    }
+    
+    /** The index of {@code image} in the palette, adding it if it isn't there. */
+    int paletteIndex(@NonNull Image image) {
+        for (int i = 0; i < palette.size(); i++) {
+            if (palette.get(i) == image) return i;
+        }
+        if (palette.size() == MAX_PALETTE_SIZE) {
+            throw new IllegalStateException("A herd can only have " + MAX_PALETTE_SIZE + " different images");
+        }
+        palette.add(image);
+        return palette.size() - 1;
+    }
+    
+    /** Draw all the cows on the canvas. */
+    void draw(@NonNull Canvas canvas, @NonNull RanchView view) {
+        draw(canvas, view, Collections.singletonList(new Rectangle2D(0, 0, canvas.getWidth(), canvas.getHeight())));
+    }
+    
+    /**
+     * Whether cows are drawn as a density map in the view instead of one at a time, because they're too small to see.
+     */
+    static boolean drawsDensity(@NonNull RanchView view) {
+        return spriteSize(view) < MIN_SPRITE_SIZE;
+    }
+    
+    // How big a cow is drawn, rounded so zooming doesn't resample the images at every size in between
+    private static double spriteSize(RanchView view) {
+        return Math.round(Cow.SIZE * view.getScale());
+    }
+    
+    /** Draw the cows that are at least partly in any of the rectangles of the canvas. */
+    void draw(@NonNull Canvas canvas, @NonNull RanchView view, @NonNull List<Rectangle2D> rects) {
+        // The density map is cheap to draw all of; anything outside the rectangles is clipped by the caller anyway
+        if (drawsDensity(view)) {
+            drawDensity(canvas, view);
+            return;
+        }
+        
+        // Everything that's the same for every cow is worked out once
+        double spriteSize = spriteSize(view);
+        Sprite[] paletteSprites = new Sprite[palette.size()];
+        for (int i = 0; i < paletteSprites.length; i++) {
+            paletteSprites[i] = SpriteCache.SHARED.fit(palette.get(i), spriteSize, spriteSize);
+        }
+        double gap = view.getGridLineGap();
+        double originX = view.getOriginX();
+        double originY = view.getOriginY();
+        double halfSize = spriteSize / 2;
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        
+        // The area a cow's position has to be in for any of it to be in each rectangle, in cartesian coordinates
+        int numRects = rects.size();
+        double[] lefts = new double[numRects];
+        double[] rights = new double[numRects];
+        double[] bottoms = new double[numRects];
+        double[] tops = new double[numRects];
+        for (int r = 0; r < numRects; r++) {
+            Rectangle2D rect = rects.get(r);
+            lefts[r] = (rect.getMinX() - halfSize - originX) / gap;
+            rights[r] = (rect.getMaxX() + halfSize - originX) / gap;
+            bottoms[r] = -(rect.getMaxY() + halfSize - originY) / gap;
+            tops[r] = -(rect.getMinY() - halfSize - originY) / gap;
+        }
+        
+        for (int i = 0; i < size; i++) {
+            double x = xs[i];
+            double y = ys[i];
+            for (int r = 0; r < numRects; r++) {
+                if (x > lefts[r] && x < rights[r] && y > bottoms[r] && y < tops[r]) {
+                    paletteSprites[sprites[i] & 0xff].drawCentered(gc, x * gap + originX, -y * gap + originY);
+                    break;
+                }
+            }
+        }
+    }
+    
+    // Draw how many cows are in each cell of the canvas as one image, however many cows there are
+    private void drawDensity(Canvas canvas, RanchView view) {
+        // The cells line up with the origin, so the map doesn't shimmer as the view is panned
+        double left = view.getOriginX() - Math.ceil(view.getOriginX() / DENSITY_CELL_SIZE) * DENSITY_CELL_SIZE;
+        double top = view.getOriginY() - Math.ceil(view.getOriginY() / DENSITY_CELL_SIZE) * DENSITY_CELL_SIZE;
+        int columns = (int) Math.ceil((canvas.getWidth() - left) / DENSITY_CELL_SIZE);
+        int rows = (int) Math.ceil((canvas.getHeight() - top) / DENSITY_CELL_SIZE);
+        if (columns < 1 || rows < 1) return;
+        
+        int[] counts = countInCells(view.getGridLineGap(), view.getOriginX() - left, view.getOriginY() - top,
+                columns, rows, DENSITY_CELL_SIZE);
+        if (densityPixels.length < counts.length) {
+            densityPixels = new int[counts.length];
+        }
+        for (int i = 0; i < counts.length; i++) {
+            densityPixels[i] = densityColor(counts[i]);
+        }
+        
+        WritableImage image = densityImages[nextDensityImage];
+        if (image == null || image.getWidth() != columns || image.getHeight() != rows) {
+            image = new WritableImage(columns, rows);
+            densityImages[nextDensityImage] = image;
+        }
+        nextDensityImage = 1 - nextDensityImage;
+        image.getPixelWriter().setPixels(0, 0, columns, rows, PixelFormat.getIntArgbInstance(),
+                densityPixels, 0, columns);
+        canvas.getGraphicsContext2D().drawImage(image, left, top,
+                columns * DENSITY_CELL_SIZE, rows * DENSITY_CELL_SIZE);
+    }
+    
+    /**
+     * How many cows are in each square cell of a grid of {@code columns} by {@code rows} cells, in row-major order.
+     * The grid's top-left corner is (0, 0) on the canvas; the cartesian origin is at (originX, originY).
+     */
+    int[] countInCells(double gap, double originX, double originY, int columns, int rows, double cellSize) {
+        int[] counts = new int[columns * rows];
+        double scale = gap / cellSize;
+        double cellOriginX = originX / cellSize;
+        double cellOriginY = originY / cellSize;
+        for (int i = 0; i < size; i++) {
+            double column = xs[i] * scale + cellOriginX;
+            double row = -ys[i] * scale + cellOriginY;
+            if (column >= 0 && column < columns && row >= 0 && row < rows) {
+                counts[(int) row * columns + (int) column]++;
+            }
+        }
+        return counts;
+    }
+    
+    // The ARGB colour of a cell of the density map with that many cows in it
+    private static int densityColor(int count) {
+        if (count == 0) return 0;
+        int alpha = Math.min(0xff, DENSITY_MIN_ALPHA + (count - 1) * DENSITY_ALPHA_PER_COW);
+        return alpha << 24 | DENSITY_RGB;
+    }
+    
+    private void checkIndex(int i) {
+        if (i < 0 || i >= size) {
+            throw new IndexOutOfBoundsException("Index " + i + " in a herd of " + size);
+        }
+    }
+    
+}
\ No newline at end of file
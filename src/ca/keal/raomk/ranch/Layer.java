@@ -0,0 +1,18 @@
+package ca.keal.raomk.ranch;
+
+/** The canvases the {@link Ranch} is drawn on, from bottom to top. */
+enum Layer {
+    
+    /** Background color, flowers, grid and axes. Moves with the view. */
+    BACKGROUND,
+    
+    /** Moves with the view. */
+    COWS,
+    
+    /** Moves with the view. */
+    FENCES,
+    
+    /** Gumdrop Joe and the play again button. Doesn't move with the view. */
+    GUMDROP_JOE
+    
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ca.keal.raomk.ranch;
+
+import javafx.scene.Node;
+import javafx.scene.Scene;
+import javafx.stage.Window;
+import lombok.Data;
+import lombok.NonNull;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * How many pixels on the screen each pixel of a node is drawn as, e.g. 2 by 2 on a HiDPI screen. A snapshot of a
+ * canvas has one image pixel per canvas pixel, so on those screens it's blurry when it's drawn back unless it was
+ * drawn bigger to begin with. Windows only say what their scale is from JavaFX 9, so it's looked up reflectively and
+ * taken to be 1 where it can't be.
+ */
+@Data
+final class OutputScale {
+    
+    static final OutputScale ONE = new OutputScale(1, 1);
+    
+    private static final Method GET_OUTPUT_SCALE_X = windowMethod("getOutputScaleX");
+    private static final Method GET_OUTPUT_SCALE_Y = windowMethod("getOutputScaleY");
+    
+    private final double x;
+    private final double y;
+    
+    /** The scale of the window {@code node} is shown in, or 1 by 1 if it isn't shown in one. */
+    static OutputScale of(@NonNull Node node) {
+        Scene scene = node.getScene();
+        Window window = scene == null ? null : scene.getWindow();
+        if (window == null || GET_OUTPUT_SCALE_X == null || GET_OUTPUT_SCALE_Y == null) return ONE;
+        
+        try {
+            double x = (double) GET_OUTPUT_SCALE_X.invoke(window);
+            double y = (double) GET_OUTPUT_SCALE_Y.invoke(window);
+            return x == 1 && y == 1 ? ONE : new OutputScale(x, y);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            return ONE;
+        }
+    }
+    
+    boolean isOne() {
+        return x == 1 && y == 1;
+    }
+    
+    private static Method windowMethod(String name) {
+        try {
+            return Window.class.getMethod(name);
+        } catch (NoSuchMethodException e) {
+            return null; // JavaFX 8
+        }
+    }
+    
+}
\ No newline at end of file
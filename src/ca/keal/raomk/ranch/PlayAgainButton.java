@@ -22,7 +22,7 @@ class PlayAgainButton implements EventHandler<MouseEvent> {
     private static final Image IMAGE = Utils.getImageAsset("play_again");
     
     private static final double BOTTOM_BUFFER = 15;
-    private static final double HEIGHT = 50;
+    static final double HEIGHT = 50;
     private static final double WIDTH;
     static {
         WIDTH = HEIGHT * (IMAGE.getWidth() / IMAGE.getHeight());
@@ -41,7 +41,8 @@ class PlayAgainButton implements EventHandler<MouseEvent> {
         if (!active) return;
         
         GraphicsContext gc = canvas.getGraphicsContext2D();
-        gc.drawImage(IMAGE, canvas.getWidth()/2 - WIDTH/2, canvas.getHeight() - HEIGHT - BOTTOM_BUFFER, WIDTH, HEIGHT);
+        SpriteCache.SHARED.get(IMAGE, WIDTH, HEIGHT)
+                .draw(gc, canvas.getWidth()/2 - WIDTH/2, canvas.getHeight() - HEIGHT - BOTTOM_BUFFER);
     }
     
     @Override
@@ -2,10 +2,12 @@ package ca.keal.raomk.ranch;
 
 import ca.keal.raomk.dr.DomainRange;
 import ca.keal.raomk.dr.Interval;
+import javafx.geometry.Rectangle2D;
 import javafx.geometry.VPos;
 import javafx.scene.canvas.Canvas;
 import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
 import javafx.scene.paint.Color;
 import javafx.scene.text.TextAlignment;
 import lombok.EqualsAndHashCode;
@@ -16,6 +18,7 @@ import lombok.ToString;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
 import java.util.Random;
@@ -28,8 +31,16 @@ import java.util.function.Supplier;
 @ToString
 public class Ranch {
     
-    private static final double GRID_LINE_GAP = 30;
-    private static final double DRAWING_BUFFER = 10; // the buffer around the screen to be drawn to increase fluidity
+    static final double GRID_LINE_GAP = 30;
+    private static final double DRAWING_BUFFER = 20; // the buffer around the canvas drawn to, so labels aren't cut off
+    
+    // Zoomed out, only every few grid lines are drawn and labelled so they're at least this many pixels apart
+    private static final double MIN_GRID_LINE_SPACING = 6;
+    private static final double MIN_LABEL_SPACING = 30;
+    
+    // The background is drawn in tiles - 512x512 is 4-9 tiles for a normal window
+    private static final int BACKGROUND_TILE_SIZE = 512;
+    private static final int BACKGROUND_TILE_CAPACITY = 32;
     
     private static final Color BACKGROUND_COLOR = Color.rgb(0x1e, 0x82, 0x00);
     private static final Color GRID_LINE_COLOR = Color.rgb(0x0f, 0x50, 0x00);
@@ -39,14 +50,25 @@ public class Ranch {
     private static final double COW_DISTRIBUTION_BUFFER = 0.5;
     private static final Random COW_DISTRIBUTION_RANDOM = new Random();
     
-    private Flower[] flowers = new Flower[10000];
+    private static final int NUM_FLOWERS = 10000;
     private static final double MAX_FLOWER_DIST = 500;
+    private static final double FLOWER_GRID_CELL_SIZE = 10; // about one flower per cell
+    private static final double MIN_FLOWER_SIZE = 4; // smaller than this on screen, flowers aren't drawn at all
+    private SpatialGrid<Flower> flowers;
+    
+    private TileCache<WritableImage> backgroundTiles;
+    private Canvas backgroundTileCanvas; // tiles are drawn on this, then copied
+    private double backgroundTilesGridLineGap; // the gridLineGap the tiles were drawn with
     
     @Getter private DomainRange domain = null;
     @Getter private DomainRange range = null;
     private List<Fence> fences = new ArrayList<>();
+    private List<Fence> changedFences = new ArrayList<>(); // added or removed since the fences were last drawn
+    
+    /** How many times only the parts of the fence layer with changed fences in them were drawn */
+    @Getter private long fenceBandRepaints = 0;
     
-    private List<Cow> cows = new ArrayList<>();
+    private Herd herd = new Herd();
     
     private GumdropJoe gumdropJoe = new GumdropJoe();
     private Queue<String> gumdropJoeQueue = new ArrayDeque<>();
@@ -61,6 +83,13 @@ public class Ranch {
     
     @Getter private RanchView view;
     
+    @Getter private RenderScheduler renderScheduler = RenderScheduler.onAnimationTimer(this::renderFrame);
+    private DirtyLayers dirtyLayers = new DirtyLayers(this::draw, renderScheduler::request);
+    
+    // Pans move what's already on these layers instead of drawing them again
+    private ScrollBlitter cowsBlitter = new ScrollBlitter();
+    private ScrollBlitter fencesBlitter = new ScrollBlitter();
+    
     public Ranch(Runnable restartFunc, Canvas layerBg, Canvas layerCows, Canvas layerFences, Canvas layerGumdropJoe) {
         this.layerBg = layerBg;
         this.layerCows = layerCows;
@@ -71,19 +100,31 @@ public class Ranch {
         
         playAgainButton = new PlayAgainButton(restartFunc);
         
-        // Generate flowers
+        // Generate flowers, then index them so only the ones near the screen are drawn
         Random random = new Random();
-        for (int i = 0; i < flowers.length; i++) {
-            flowers[i] = Flower.random(new Position(
+        List<Flower> flowerList = new ArrayList<>(NUM_FLOWERS);
+        for (int i = 0; i < NUM_FLOWERS; i++) {
+            flowerList.add(Flower.random(new Position(
                     random.nextDouble() * MAX_FLOWER_DIST * (random.nextBoolean() ? 1 : -1),
-                    random.nextDouble() * MAX_FLOWER_DIST * (random.nextBoolean() ? 1 : -1)), random);
+                    random.nextDouble() * MAX_FLOWER_DIST * (random.nextBoolean() ? 1 : -1)), random));
         }
+        flowers = new SpatialGrid<>(flowerList, Flower::getPosition, FLOWER_GRID_CELL_SIZE);
         
-        redraw();
+        backgroundTileCanvas = new Canvas(BACKGROUND_TILE_SIZE, BACKGROUND_TILE_SIZE);
+        backgroundTiles = new TileCache<>(BACKGROUND_TILE_SIZE, BACKGROUND_TILE_CAPACITY, this::drawBackgroundTile);
+        backgroundTilesGridLineGap = view.getGridLineGap();
+        
+        dirtyLayers.repaint(); // everything starts out dirty
         
         // using layerBg as representative of layers as hack to draw the background correctly
         // height may change during drawing so this ensures proper drawing of the background
-        layerBg.heightProperty().addListener((prop, oldHeight, newHeight) -> redraw());
+        // Gumdrop Joe and the play again button are placed relative to the size of the canvas, so they change too
+        layerBg.widthProperty().addListener((prop, oldWidth, newWidth) -> backgroundTiles.invalidate());
+        layerBg.heightProperty().addListener((prop, oldHeight, newHeight) -> {
+            backgroundTiles.invalidate();
+            dirtyLayers.markAll();
+            renderScheduler.request();
+        });
         
         // Add listeners to all layers
         for (Canvas layer : new Canvas[] {layerBg, layerCows, layerFences, layerGumdropJoe}) {
@@ -97,8 +138,25 @@ public class Ranch {
     }
     
     public void addCow(@NonNull Cow cow) {
-        cows.add(cow);
-        drawCows();
+        herd.add(cow);
+        invalidate(Layer.COWS);
+    }
+    
+    /** Add a lot of cows, drawing them all at once. */
+    public void addCows(@NonNull Collection<Cow> cows) {
+        herd.ensureCapacity(herd.size() + cows.size());
+        for (Cow cow : cows) {
+            herd.add(cow);
+        }
+        invalidate(Layer.COWS);
+    }
+    
+    /**
+     * Make some changes to the ranch, e.g. setting up a level, and draw them all at once on the next pulse after
+     * they're done.
+     */
+    public void batch(@NonNull Runnable changes) {
+        dirtyLayers.batch(changes);
     }
     
     /** Distribute cows throughout the range defined by xSpread/ySpread. */
@@ -113,35 +171,33 @@ public class Ranch {
         
         // Put at least one cow on corners - randomly choose between top-left/bottom-right and top-right/bottom-left
         // This ensures that the domain/range is always respected
-        Position bottomCornerCowPos, topCornerCowPos;
         if (COW_DISTRIBUTION_RANDOM.nextBoolean()) {
-            topCornerCowPos = new Position(left, top);
-            bottomCornerCowPos = new Position(right, bottom);
+            herd.add(right, bottom, cowImageSupplier.get());
+            herd.add(left, top, cowImageSupplier.get());
         } else {
-            topCornerCowPos = new Position(right, top);
-            bottomCornerCowPos = new Position(left, bottom);
+            herd.add(left, bottom, cowImageSupplier.get());
+            herd.add(right, top, cowImageSupplier.get());
         }
-        cows.add(new Cow(bottomCornerCowPos, cowImageSupplier.get()));
-        cows.add(new Cow(topCornerCowPos, cowImageSupplier.get()));
         
         // Find the area of the intervals, use that to calculate number of cows based on density
         double area = width * height;
         int numCows = (int) (density * COW_DISTRIBUTION_DENSITY * area);
         
         // Randomly distribute the cows - TODO maybe use the Halton sequence or something else?
+        herd.ensureCapacity(herd.size() + numCows);
         for (int i = 0; i < numCows; i++) {
-            cows.add(new Cow(new Position(
+            herd.add(
                     width * COW_DISTRIBUTION_RANDOM.nextDouble() + left,
-                    height * COW_DISTRIBUTION_RANDOM.nextDouble() + bottom
-            ), cowImageSupplier.get()));
+                    height * COW_DISTRIBUTION_RANDOM.nextDouble() + bottom,
+                    cowImageSupplier.get());
         }
         
-        drawCows();
+        invalidate(Layer.COWS);
     }
     
     public void clearCows() {
-        cows.clear();
-        drawCows();
+        herd.clear();
+        invalidate(Layer.COWS);
     }
     
     public void setDomain(DomainRange domain) {
@@ -154,33 +210,42 @@ public class Ranch {
         updateFences();
     }
     
+    // The fences are worked out from all of the domain and range again and diffed with the old ones, which is linear
+    // in the number of fences. They can't be diffed one parsed clause at a time: fences are made from the merged
+    // intervals, so editing one clause can join or split intervals made from others (e.g. "0 < x < 5 or 3 < x < 8" has
+    // no fences at 3 or 5). Parsing a clause already builds the whole IntervalSet again, so this isn't any slower.
     private void updateFences() {
-        fences = new ArrayList<>(); // clear fences
+        List<Fence> newFences = new ArrayList<>();
         
         // Domain fences are vertical, range fences are horizontal
         if (domain != null) {
             domain.getIntervals().stream()
                     .map(interval -> Fence.intervalToFences(interval, Fence.Orientation.VERTICAL))
-                    .forEach(fences::addAll);
+                    .forEach(newFences::addAll);
         }
         if (range != null) {
             range.getIntervals().stream()
                     .map(interval -> Fence.intervalToFences(interval, Fence.Orientation.HORIZONTAL))
-                    .forEach(fences::addAll);
+                    .forEach(newFences::addAll);
         }
         
-        drawFences();
+        // Usually only a bound or two changes as the player types, so only those fences are drawn or erased
+        Diff<Fence> diff = Diff.of(fences, newFences);
+        fences = newFences;
+        if (diff.isEmpty()) return;
+        changedFences.addAll(diff.getAdded());
+        changedFences.addAll(diff.getRemoved());
+        renderScheduler.request();
     }
     
     private void gumdropJoeSay(String text) {
         gumdropJoe.setText(text);
-        drawGumdropJoe();
+        invalidate(Layer.GUMDROP_JOE);
     }
     
     public void gumdropJoeClear() {
         lastGumdropJoeClearable = true;
         gumdropJoeSay(null);
-        drawGumdropJoe();
     }
     
     public void gumdropJoeQueue(boolean lastClearable, String... textsToQueue) {
@@ -214,100 +279,230 @@ public class Ranch {
     
     public void activatePlayAgainButton() {
         playAgainButton.activate();
-        drawGumdropJoe();
+        invalidate(Layer.GUMDROP_JOE);
     }
     
+    /** Pan the view. This is drawn on the next pulse, along with any other pans before it. */
     public void shiftBy(double shiftX, double shiftY) {
-        view.shift(shiftX, shiftY);
-        redraw();
+        renderScheduler.pan(shiftX, shiftY);
+    }
+    
+    /**
+     * Zoom the view in ({@code factor > 1}) or out ({@code factor < 1}) around the point (pivotX, pivotY) on the
+     * canvas. This is drawn on the next pulse.
+     */
+    public void zoomBy(double factor, double pivotX, double pivotY) {
+        // Pans that haven't been drawn yet are applied after the zoom, so zoom around where the pivot is before them
+        view.zoom(factor, pivotX - renderScheduler.getPendingShiftX(), pivotY - renderScheduler.getPendingShiftY());
+        invalidate(Layer.BACKGROUND, Layer.COWS, Layer.FENCES);
+    }
+    
+    /** How many times a layer has been repainted. */
+    public long getLayerRepaints() {
+        return dirtyLayers.getRepaints();
+    }
+    
+    /** How many times a layer hasn't been repainted because it didn't change, where redrawing everything would have. */
+    public long getLayerRepaintsAvoided() {
+        return dirtyLayers.getRepaintsAvoided();
+    }
+    
+    // Mark layers as changed, to be repainted on the next pulse
+    private void invalidate(Layer... layers) {
+        dirtyLayers.mark(layers);
+        renderScheduler.request();
     }
     
-    private void redraw() {
-        drawBackground();
-        drawCows();
-        drawFences();
-        drawGumdropJoe();
+    /** How many pixels of the cow and fence layers were copied instead of drawn when panning. */
+    public long getPixelsBlitted() {
+        return cowsBlitter.getPixelsCopied() + fencesBlitter.getPixelsCopied();
     }
     
+    // Called by the render scheduler at most once a pulse
+    private void renderFrame(double shiftX, double shiftY) {
+        if (!changedFences.isEmpty()) {
+            // A pan or anything else that draws all the fences again draws the changed ones too
+            if (shiftX != 0 || shiftY != 0 || dirtyLayers.isDirty(Layer.FENCES)) {
+                dirtyLayers.mark(Layer.FENCES);
+            } else {
+                drawChangedFences();
+            }
+        }
+        
+        if (shiftX != 0 || shiftY != 0) {
+            view.shift(shiftX, shiftY);
+            
+            // The background is copied from its tiles anyway, and Gumdrop Joe doesn't move with the view. Cows and
+            // fences are moved over and only drawn along the edges, unless they've changed too.
+            dirtyLayers.mark(Layer.BACKGROUND);
+            if (dirtyLayers.isDirty(Layer.COWS) || !cowsBlitter.pan(layerCows, shiftX, shiftY, this::drawCows)) {
+                dirtyLayers.mark(Layer.COWS);
+            }
+            if (dirtyLayers.isDirty(Layer.FENCES) || !fencesBlitter.pan(layerFences, shiftX, shiftY,
+                    strips -> fences.forEach(fence -> fence.draw(layerFences, view)))) {
+                dirtyLayers.mark(Layer.FENCES);
+            }
+        }
+        dirtyLayers.repaint();
+    }
+    
+    private void draw(Layer layer) {
+        switch (layer) {
+            case BACKGROUND:
+                drawBackground();
+                break;
+            case COWS:
+                drawCows();
+                break;
+            case FENCES:
+                drawFences();
+                break;
+            case GUMDROP_JOE:
+                drawGumdropJoe();
+                break;
+        }
+    }
+    
+    // The background doesn't move relative to the origin, so it's copied from cached tiles instead of being redrawn
     private void drawBackground() {
+        if (view.getGridLineGap() != backgroundTilesGridLineGap) {
+            // Zoomed, and probably still zooming - draw straight onto the layer instead of drawing tiles that would
+            // only be used once. The tiles are drawn again once a frame has the same zoom as the last.
+            backgroundTiles.invalidate();
+            backgroundTilesGridLineGap = view.getGridLineGap();
+            drawBackground(layerBg, view);
+            return;
+        }
+        if (!OutputScale.of(layerBg).isOne()) {
+            // Tiles are snapshots at one pixel per canvas pixel, which would blur the grid on a HiDPI screen
+            drawBackground(layerBg, view);
+            return;
+        }
+        
         GraphicsContext gc = layerBg.getGraphicsContext2D();
+        backgroundTiles.forEachVisible(view.getOriginX(), view.getOriginY(), layerBg.getWidth(), layerBg.getHeight(),
+                (tile, x, y) -> gc.drawImage(tile, x, y));
+    }
+    
+    // Draw the background tile at (column, row) from the origin
+    private WritableImage drawBackgroundTile(int column, int row) {
+        RanchView tileView = view.withOrigin(-column * BACKGROUND_TILE_SIZE, -row * BACKGROUND_TILE_SIZE);
+        drawBackground(backgroundTileCanvas, tileView);
+        return backgroundTileCanvas.snapshot(null, new WritableImage(BACKGROUND_TILE_SIZE, BACKGROUND_TILE_SIZE));
+    }
+    
+    private void drawBackground(Canvas canvas, RanchView view) {
+        GraphicsContext gc = canvas.getGraphicsContext2D();
         
         // Background
         gc.setFill(BACKGROUND_COLOR);
-        gc.fillRect(0, 0, layerBg.getWidth(), layerBg.getHeight());
+        gc.fillRect(0, 0, canvas.getWidth(), canvas.getHeight());
         
-        // Flowers
-        for (Flower flower : flowers) {
-            flower.draw(layerBg, view);
+        // Flowers - only those in grid cells near the canvas; a flower is drawn if it's within its size of the canvas.
+        // Zoomed out far enough, they're too small to see.
+        double flowerWidth = Flower.MAX_WIDTH * view.getScale();
+        double flowerHeight = Flower.MAX_HEIGHT * view.getScale();
+        if (flowerHeight >= MIN_FLOWER_SIZE) {
+            flowers.forEachNear(
+                    Position.canvasToCartesianX(-flowerWidth, view),
+                    Position.canvasToCartesianY(canvas.getHeight() + flowerHeight, view),
+                    Position.canvasToCartesianX(canvas.getWidth() + flowerWidth, view),
+                    Position.canvasToCartesianY(-flowerHeight, view),
+                    flower -> flower.draw(canvas, view));
         }
         
-        // Grid lines + numbers
+        // Grid lines + numbers - only the lines on the canvas, every lineStep lines, labelled every labelStep lines
+        long lineStep = RanchView.gridStep(view.getGridLineGap(), MIN_GRID_LINE_SPACING);
+        long labelStep = RanchView.gridStep(view.getGridLineGap(), MIN_LABEL_SPACING);
         gc.setLineWidth(1);
         gc.setTextAlign(TextAlignment.CENTER);
         gc.setTextBaseline(VPos.TOP);
         
-        // vertical lines for x > 0
-        int i = 1;
-        for (double x = view.getOriginX() + view.getGridLineGap(); x < layerBg.getWidth() + DRAWING_BUFFER;
-             x += view.getGridLineGap()) {
+        // vertical lines
+        long firstX = firstGridLine(Position.canvasToCartesianX(-DRAWING_BUFFER, view), lineStep);
+        double lastX = Position.canvasToCartesianX(canvas.getWidth() + DRAWING_BUFFER, view);
+        for (long i = firstX; i <= lastX; i += lineStep) {
+            if (i == 0) continue; // that's the y-axis
+            double x = Position.cartesianToCanvasX(i, view);
             gc.setStroke(GRID_LINE_COLOR);
-            gc.strokeLine(x, 0, x, layerBg.getHeight());
-            gc.setStroke(TEXT_COLOR);
-            gc.strokeText(Integer.toString(i), x, view.getOriginY());
-            i++;
-        }
-        
-        // vertical lines for x < 0
-        i = -1;
-        for (double x = view.getOriginX() - view.getGridLineGap(); x > -DRAWING_BUFFER; x -= view.getGridLineGap()) {
-            gc.setStroke(GRID_LINE_COLOR);
-            gc.strokeLine(x, 0, x, layerBg.getHeight());
-            gc.setStroke(TEXT_COLOR);
-            gc.strokeText(Integer.toString(i), x, view.getOriginY());
-            i--;
+            gc.strokeLine(x, 0, x, canvas.getHeight());
+            if (i % labelStep == 0) {
+                gc.setStroke(TEXT_COLOR);
+                gc.strokeText(Long.toString(i), x, view.getOriginY());
+            }
         }
         
         gc.setTextAlign(TextAlignment.LEFT);
         gc.setTextBaseline(VPos.CENTER);
         
-        // horizontal lines for y > 0 (note the JavaFX coordinate grid increases downwards)
-        i = -1;
-        for (double y = view.getOriginY() + view.getGridLineGap(); y < layerBg.getHeight() + DRAWING_BUFFER;
-             y += view.getGridLineGap()) {
+        // horizontal lines (note the JavaFX coordinate grid increases downwards)
+        long firstY = firstGridLine(Position.canvasToCartesianY(canvas.getHeight() + DRAWING_BUFFER, view), lineStep);
+        double lastY = Position.canvasToCartesianY(-DRAWING_BUFFER, view);
+        for (long i = firstY; i <= lastY; i += lineStep) {
+            if (i == 0) continue; // that's the x-axis
+            double y = Position.cartesianToCanvasY(i, view);
             gc.setStroke(GRID_LINE_COLOR);
-            gc.strokeLine(0, y, layerBg.getWidth(), y);
-            gc.setStroke(TEXT_COLOR);
-            gc.strokeText(Integer.toString(i), view.getOriginX() + 3, y);
-            i--;
-        }
-        
-        // horizontal lines for y < 0
-        i = 1;
-        for (double y = view.getOriginY() - view.getGridLineGap(); y > -DRAWING_BUFFER; y -= view.getGridLineGap()) {
-            gc.setStroke(GRID_LINE_COLOR);
-            gc.strokeLine(0, y, layerBg.getWidth(), y);
-            gc.setStroke(TEXT_COLOR);
-            gc.strokeText(Integer.toString(i), view.getOriginX() + 3, y);
-            i++;
+            gc.strokeLine(0, y, canvas.getWidth(), y);
+            if (i % labelStep == 0) {
+                gc.setStroke(TEXT_COLOR);
+                gc.strokeText(Long.toString(i), view.getOriginX() + 3, y);
+            }
         }
         
         // Axes
         gc.setStroke(Color.BLACK);
         gc.setLineWidth(3);
-        gc.strokeLine(0, view.getOriginY(), layerBg.getWidth(), view.getOriginY()); // x-axis
-        gc.strokeLine(view.getOriginX(), 0, view.getOriginX(), layerBg.getHeight()); // y-axis
+        gc.strokeLine(0, view.getOriginY(), canvas.getWidth(), view.getOriginY()); // x-axis
+        gc.strokeLine(view.getOriginX(), 0, view.getOriginX(), canvas.getHeight()); // y-axis
+    }
+    
+    // The first multiple of step that's at least from
+    private static long firstGridLine(double from, long step) {
+        return (long) Math.ceil(from / step) * step;
     }
     
     private void drawCows() {
         layerCows.getGraphicsContext2D().clearRect(0, 0, layerCows.getWidth(), layerCows.getHeight());
-        cows.forEach(cow -> cow.draw(layerCows, view));
+        herd.draw(layerCows, view);
+    }
+    
+    // Only draw the cows in the strips
+    private void drawCows(List<Rectangle2D> strips) {
+        herd.draw(layerCows, view, strips);
     }
     
     private void drawFences() {
+        changedFences.clear();
         layerFences.getGraphicsContext2D().clearRect(0, 0, layerFences.getWidth(), layerFences.getHeight());
         fences.forEach(fence -> fence.draw(layerFences, view));
     }
     
+    // Erase the bands of the fence layer that changed fences are or were in, and draw what's in them now
+    private void drawChangedFences() {
+        List<Rectangle2D> bands = new ArrayList<>(changedFences.size());
+        for (Fence fence : changedFences) {
+            bands.add(fence.getBounds(layerFences, view));
+        }
+        changedFences.clear();
+        
+        GraphicsContext gc = layerFences.getGraphicsContext2D();
+        gc.save();
+        gc.beginPath();
+        for (Rectangle2D band : bands) {
+            gc.clearRect(band.getMinX(), band.getMinY(), band.getWidth(), band.getHeight());
+            gc.rect(band.getMinX(), band.getMinY(), band.getWidth(), band.getHeight());
+        }
+        gc.clip();
+        for (Fence fence : fences) {
+            Rectangle2D bounds = fence.getBounds(layerFences, view);
+            if (bands.stream().anyMatch(bounds::intersects)) {
+                fence.draw(layerFences, view);
+            }
+        }
+        gc.restore();
+        fenceBandRepaints++;
+    }
+    
     private void drawGumdropJoe() {
         layerGumdropJoe.getGraphicsContext2D().clearRect(0, 0, layerGumdropJoe.getWidth(), layerGumdropJoe.getHeight());
         gumdropJoe.draw(layerGumdropJoe);
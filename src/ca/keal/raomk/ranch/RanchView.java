@@ -12,15 +12,26 @@ import lombok.ToString;
 @ToString
 public class RanchView {
     
-    @Getter private final double gridLineGap; // final because no zooming currently
+    // How far in and out it can be zoomed, as the gap between grid lines - zoomed all the way out, the
+    // whole field (x and y from -500 to 500) fits on a small screen
+    static final double MIN_GRID_LINE_GAP = 0.5;
+    static final double MAX_GRID_LINE_GAP = 150;
+    
+    @Getter private double gridLineGap;
     @Getter private double offsetX = 0;
     @Getter private double offsetY = 0;
     
+    private final double originalGridLineGap;
     private double originalOriginX;
     private double originalOriginY;
     
     public RanchView(double gridLineGap, double originX, double originY) {
+        this(gridLineGap, gridLineGap, originX, originY);
+    }
+    
+    private RanchView(double gridLineGap, double originalGridLineGap, double originX, double originY) {
         this.gridLineGap = gridLineGap;
+        this.originalGridLineGap = originalGridLineGap;
         this.originalOriginX = originX;
         this.originalOriginY = originY;
     }
@@ -50,4 +61,42 @@ public class RanchView {
         offsetY += shiftY;
     }
     
+    /** A view zoomed the same as this one, but with the origin at (originX, originY). */
+    public RanchView withOrigin(double originX, double originY) {
+        return new RanchView(gridLineGap, originalGridLineGap, originX, originY);
+    }
+    
+    /** How big things are drawn compared to before any zooming, e.g. 0.5 when zoomed out to half size. */
+    public double getScale() {
+        return gridLineGap / originalGridLineGap;
+    }
+    
+    /**
+     * Zoom in ({@code factor > 1}) or out ({@code factor < 1}), keeping the point at (pivotX, pivotY) on the canvas
+     * where it is. Won't zoom past {@link #MIN_GRID_LINE_GAP} or {@link #MAX_GRID_LINE_GAP}.
+     */
+    public void zoom(double factor, double pivotX, double pivotY) {
+        double newGap = Math.max(MIN_GRID_LINE_GAP, Math.min(MAX_GRID_LINE_GAP, gridLineGap * factor));
+        double actualFactor = newGap / gridLineGap;
+        
+        // The origin moves towards or away from the pivot
+        offsetX += (actualFactor - 1) * (getOriginX() - pivotX);
+        offsetY += (actualFactor - 1) * (getOriginY() - pivotY);
+        gridLineGap = newGap;
+    }
+    
+    /**
+     * The smallest of 1, 2, 5, 10, 20, 50, ... grid lines apart that puts things at least {@code minSpacing} pixels
+     * apart, e.g. for only labelling some grid lines when zoomed out.
+     */
+    static long gridStep(double gridLineGap, double minSpacing) {
+        long step = 1;
+        while (true) {
+            for (long multiple : new long[] {1, 2, 5}) {
+                if (step * multiple * gridLineGap >= minSpacing) return step * multiple;
+            }
+            step *= 10;
+        }
+    }
+    
 }
\ No newline at end of file
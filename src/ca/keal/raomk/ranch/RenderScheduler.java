@@ -0,0 +1,97 @@
+package ca.keal.raomk.ranch;
+
+import javafx.animation.AnimationTimer;
+import lombok.Getter;
+import lombok.NonNull;
+
+/**
+ * Renders at most once per JavaFX pulse, however many times rendering is asked for in between. Pans are added up
+ * until the frame is rendered, so a lot of mouse drag events in one pulse are a single pan. The timer only runs while
+ * a frame is waiting to be rendered. Must be used on the JavaFX application thread.
+ */
+public final class RenderScheduler {
+    
+    /** Renders a frame, panning by the total of the pans since the last frame first. */
+    @FunctionalInterface
+    interface FrameRenderer {
+        void render(double shiftX, double shiftY);
+    }
+    
+    private final FrameRenderer renderer;
+    private final Runnable requestPulse;
+    
+    private boolean pending = false;
+    private double shiftX = 0;
+    private double shiftY = 0;
+    
+    /** How many frames have been rendered */
+    @Getter private long framesRendered = 0;
+    
+    /** How many pans and invalidations were rendered in a frame that had already been asked for */
+    @Getter private long eventsCoalesced = 0;
+    
+    /** The longest time rendering a frame has taken, in nanoseconds */
+    @Getter private long maxFrameNanos = 0;
+    
+    /** {@code requestPulse} has to make {@link #frame()} be called later, e.g. on the next pulse. */
+    RenderScheduler(@NonNull FrameRenderer renderer, @NonNull Runnable requestPulse) {
+        this.renderer = renderer;
+        this.requestPulse = requestPulse;
+    }
+    
+    /** A RenderScheduler that renders on the next JavaFX pulse. */
+    static RenderScheduler onAnimationTimer(@NonNull FrameRenderer renderer) {
+        RenderScheduler[] scheduler = new RenderScheduler[1];
+        AnimationTimer timer = new AnimationTimer() {
+            @Override
+            public void handle(long now) {
+                stop(); // until there's another frame to render
+                scheduler[0].frame();
+            }
+        };
+        scheduler[0] = new RenderScheduler(renderer, timer::start);
+        return scheduler[0];
+    }
+    
+    /** Ask for a frame to be rendered. */
+    void request() {
+        if (pending) {
+            eventsCoalesced++;
+            return;
+        }
+        pending = true;
+        requestPulse.run();
+    }
+    
+    /** Pan the view in the next frame, on top of any other pans since the last one. */
+    void pan(double shiftX, double shiftY) {
+        this.shiftX += shiftX;
+        this.shiftY += shiftY;
+        request();
+    }
+    
+    /** How far the view will be panned in the next frame, i.e. the total of the pans since the last one. */
+    double getPendingShiftX() {
+        return shiftX;
+    }
+    
+    double getPendingShiftY() {
+        return shiftY;
+    }
+    
+    /** Render the frame that was asked for, if there is one. */
+    void frame() {
+        if (!pending) return;
+        pending = false;
+        
+        double frameShiftX = shiftX;
+        double frameShiftY = shiftY;
+        shiftX = shiftY = 0;
+        
+        long start = System.nanoTime();
+        renderer.render(frameShiftX, frameShiftY);
+        maxFrameNanos = Math.max(maxFrameNanos, System.nanoTime() - start);
+        framesRendered++;
+    }
+    
+}
\ No newline at end of file
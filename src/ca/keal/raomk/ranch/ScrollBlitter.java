@@ -0,0 +1,128 @@
+package ca.keal.raomk.ranch;
+
+import javafx.geometry.Rectangle2D;
+import javafx.scene.SnapshotParameters;
+import javafx.scene.canvas.Canvas;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Pans a canvas by copying what's already on it over by the pan, then only drawing the strips along the edges that
+ * weren't on it before. A small pan only has to draw a few pixels along one or two edges instead of the whole canvas.
+ * Each canvas is copied through its own pair of images, so an image isn't drawn over while it's still being drawn.
+ */
+final class ScrollBlitter {
+    
+    // Past this fraction of the canvas it's as fast to draw the whole thing
+    private static final double MAX_EXPOSED_FRACTION = 0.5;
+    
+    /** Draws what's in the given rectangles of the canvas. Drawing outside them is clipped. */
+    @FunctionalInterface
+    interface StripPainter {
+        void paint(List<Rectangle2D> strips);
+    }
+    
+    private final SnapshotParameters snapshotParameters = new SnapshotParameters();
+    private final WritableImage[] buffers = new WritableImage[2];
+    private int nextBuffer = 0;
+    
+    /** How many pans were copied, and how many pixels were drawn and copied for them */
+    @Getter private long blits = 0;
+    @Getter private long pixelsPainted = 0;
+    @Getter private long pixelsCopied = 0;
+    
+    ScrollBlitter() {
+        snapshotParameters.setFill(Color.TRANSPARENT);
+    }
+    
+    /**
+     * Move what's on {@code canvas} by (shiftX, shiftY) and have {@code painter} draw the strips that are uncovered.
+     * Returns false without doing anything if the pan can't be copied, e.g. because it's not by whole pixels, it's
+     * too big, or the canvas is on a HiDPI screen, in which case the whole canvas has to be drawn.
+     */
+    boolean pan(@NonNull Canvas canvas, double shiftX, double shiftY, @NonNull StripPainter painter) {
+        double width = canvas.getWidth();
+        double height = canvas.getHeight();
+        if (!canBlit(width, height, shiftX, shiftY)) return false;
+        
+        // A snapshot has one pixel per canvas pixel, so copying through it would blur a canvas that's shown bigger
+        if (!OutputScale.of(canvas).isOne()) return false;
+        
+        // Copy the canvas into a buffer, then draw it back over by the pan
+        WritableImage buffer = buffers[nextBuffer];
+        if (buffer == null || buffer.getWidth() != width || buffer.getHeight() != height) {
+            buffer = new WritableImage((int) width, (int) height);
+            buffers[nextBuffer] = buffer;
+        }
+        nextBuffer = 1 - nextBuffer;
+        canvas.snapshot(snapshotParameters, buffer);
+        
+        GraphicsContext gc = canvas.getGraphicsContext2D();
+        gc.clearRect(0, 0, width, height);
+        gc.drawImage(buffer, shiftX, shiftY);
+        
+        // Only draw in the uncovered strips
+        List<Rectangle2D> strips = exposedStrips(width, height, shiftX, shiftY);
+        gc.save();
+        gc.beginPath();
+        for (Rectangle2D strip : strips) {
+            gc.rect(strip.getMinX(), strip.getMinY(), strip.getWidth(), strip.getHeight());
+        }
+        gc.clip();
+        painter.paint(strips);
+        gc.restore();
+        
+        blits++;
+        long painted = (long) area(strips);
+        pixelsPainted += painted;
+        pixelsCopied += (long) (width * height) - painted;
+        return true;
+    }
+    
+    /** Whether a pan of a canvas can be copied instead of drawing all of it again. */
+    static boolean canBlit(double width, double height, double shiftX, double shiftY) {
+        // A pan by part of a pixel would blur everything copied
+        if (shiftX != Math.rint(shiftX) || shiftY != Math.rint(shiftY)) return false;
+        if (width < 1 || height < 1 || width != Math.rint(width) || height != Math.rint(height)) return false;
+        if (Math.abs(shiftX) >= width || Math.abs(shiftY) >= height) return false;
+        return area(exposedStrips(width, height, shiftX, shiftY)) <= MAX_EXPOSED_FRACTION * width * height;
+    }
+    
+    /**
+     * The parts of a canvas that aren't covered by what was on it after it's moved by (shiftX, shiftY): a strip along
+     * the left or right edge and one along the top or bottom. They don't overlap.
+     */
+    static List<Rectangle2D> exposedStrips(double width, double height, double shiftX, double shiftY) {
+        List<Rectangle2D> strips = new ArrayList<>(2);
+        
+        // The whole height along the left or right...
+        double stripWidth = Math.min(Math.abs(shiftX), width);
+        if (stripWidth > 0) {
+            strips.add(new Rectangle2D(shiftX > 0 ? 0 : width - stripWidth, 0, stripWidth, height));
+        }
+        
+        // ...and the rest of the top or bottom
+        double stripHeight = Math.min(Math.abs(shiftY), height);
+        if (stripHeight > 0 && stripWidth < width) {
+            strips.add(new Rectangle2D(shiftX > 0 ? stripWidth : 0, shiftY > 0 ? 0 : height - stripHeight,
+                    width - stripWidth, stripHeight));
+        }
+        
+        return strips;
+    }
+    
+    private static double area(List<Rectangle2D> strips) {
+        double area = 0;
+        for (Rectangle2D strip : strips) {
+            area += strip.getWidth() * strip.getHeight();
+        }
+        return area;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package ca.keal.raomk.ranch;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * A uniform grid over things that don't move, for finding the ones in a rectangle of the cartesian plane without
+ * looking at all of them. The things in each cell are stored next to each other in one array. Immutable.
+ */
+final class SpatialGrid<T> {
+    
+    /** Width and height of each cell, in cartesian units */
+    @Getter private final double cellSize;
+    
+    private final double minX;
+    private final double minY;
+    private final int columns;
+    private final int rows;
+    
+    // The things in cell c are items[cellStarts[c]] up to items[cellStarts[c + 1]]; cells go row by row
+    private final int[] cellStarts;
+    private final Object[] items;
+    
+    SpatialGrid(@NonNull List<? extends T> things, @NonNull Function<? super T, Position> positionOf, double cellSize) {
+        if (!(cellSize > 0)) {
+            throw new IllegalArgumentException("Cell size must be positive");
+        }
+        this.cellSize = cellSize;
+        
+        // Cover the bounding box of all the things
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (T thing : things) {
+            Position position = positionOf.apply(thing);
+            minX = Math.min(minX, position.getX());
+            minY = Math.min(minY, position.getY());
+            maxX = Math.max(maxX, position.getX());
+            maxY = Math.max(maxY, position.getY());
+        }
+        if (things.isEmpty()) {
+            minX = minY = maxX = maxY = 0;
+        }
+        this.minX = minX;
+        this.minY = minY;
+        columns = (int) ((maxX - minX) / cellSize) + 1;
+        rows = (int) ((maxY - minY) / cellSize) + 1;
+        
+        // Counting sort by cell: count each cell, turn the counts into starts, then fill each cell in
+        int[] cells = new int[things.size()];
+        cellStarts = new int[columns * rows + 1];
+        for (int i = 0; i < things.size(); i++) {
+            Position position = positionOf.apply(things.get(i));
+            cells[i] = cell(column(position.getX()), row(position.getY()));
+            cellStarts[cells[i] + 1]++;
+        }
+        for (int c = 0; c < columns * rows; c++) {
+            cellStarts[c + 1] += cellStarts[c];
+        }
+        items = new Object[things.size()];
+        int[] next = cellStarts.clone();
+        for (int i = 0; i < things.size(); i++) {
+            items[next[cells[i]]++] = things.get(i);
+        }
+    }
+    
+    /** The number of things in the grid. */
+    int size() {
+        return items.length;
+    }
+    
+    /**
+     * Call {@code action} on everything in the cells that overlap the rectangle, and return how many things that was.
+     * This includes everything in the rectangle, and may include some things near it.
+     */
+    @SuppressWarnings("unchecked")
+    int forEachNear(double left, double bottom, double right, double top, Consumer<? super T> action) {
+        if (right < left || top < bottom) return 0;
+        
+        int firstColumn = Math.max(0, column(left));
+        int lastColumn = Math.min(columns - 1, column(right));
+        int firstRow = Math.max(0, row(bottom));
+        int lastRow = Math.min(rows - 1, row(top));
+        if (firstColumn > lastColumn || firstRow > lastRow) return 0; // all outside the grid
+        
+        int visited = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            // Cells in a row are next to each other, so the whole row is one run of items
+            int start = cellStarts[cell(firstColumn, row)];
+            int end = cellStarts[cell(lastColumn, row) + 1];
+            for (int i = start; i < end; i++) {
+                action.accept((T) items[i]);
+            }
+            visited += end - start;
+        }
+        return visited;
+    }
+    
+    // Outside the grid gives a column/row outside [0, columns/rows), so it can be clamped
+    private int column(double x) {
+        return (int) Math.max(-1, Math.min(columns, Math.floor((x - minX) / cellSize)));
+    }
+    
+    private int row(double y) {
+        return (int) Math.max(-1, Math.min(rows, Math.floor((y - minY) / cellSize)));
+    }
+    
+    private int cell(int column, int row) {
+        return row * columns + column;
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,39 @@
+package ca.keal.raomk.ranch;
+
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * An image resampled to the size it's drawn at, from a {@link SpriteCache}. Drawing it doesn't have to scale the
+ * original image down every time. Immutable.
+ */
+@Getter
+@ToString
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+final class Sprite {
+    
+    private final Image image;
+    
+    /** The size it's drawn at, which is within a pixel of the image's size */
+    private final double width;
+    private final double height;
+    
+    /** Where to draw it so it's centered on (0, 0) */
+    private final double centeringOffsetX;
+    private final double centeringOffsetY;
+    
+    /** Draw it with its top-left corner at (x, y). */
+    void draw(GraphicsContext gc, double x, double y) {
+        gc.drawImage(image, x, y, width, height);
+    }
+    
+    /** Draw it centered on (x, y). */
+    void drawCentered(GraphicsContext gc, double x, double y) {
+        gc.drawImage(image, x + centeringOffsetX, y + centeringOffsetY, width, height);
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,150 @@
+package ca.keal.raomk.ranch;
+
+import ca.keal.raomk.AssetManager;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelReader;
+import javafx.scene.image.WritableImage;
+import lombok.Data;
+import lombok.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of {@link Sprite}s: images resampled once to the size they're drawn at. Resampling
+ * averages all the pixels that go into each new pixel, so sprites scaled down a lot still look smooth. Must be used on
+ * the JavaFX application thread.
+ */
+final class SpriteCache {
+    
+    private static final int DEFAULT_CAPACITY = 256;
+    
+    /** The cache used for drawing the ranch. */
+    static final SpriteCache SHARED = new SpriteCache(DEFAULT_CAPACITY);
+    
+    private final int capacity;
+    private final Map<Key, Sprite> sprites;
+    
+    SpriteCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+        this.capacity = capacity;
+        
+        // Access order, so the eldest entry is the least recently used
+        sprites = new LinkedHashMap<Key, Sprite>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Sprite> eldest) {
+                return size() > SpriteCache.this.capacity;
+            }
+        };
+    }
+    
+    /** Get {@code image} at the given size. */
+    Sprite get(@NonNull Image image, double width, double height) {
+        Key key = new Key(image, width, height);
+        Sprite sprite = sprites.get(key);
+        if (sprite == null) {
+            sprite = new Sprite(resample(image, width, height), width, height, -width/2, -height/2);
+            sprites.put(key, sprite);
+        }
+        return sprite;
+    }
+    
+    /** Get {@code image} as big as it can be without being wider than maxWidth or taller than maxHeight. */
+    Sprite fit(@NonNull Image image, double maxWidth, double maxHeight) {
+        double[] size = fitSize(image.getWidth(), image.getHeight(), maxWidth, maxHeight);
+        return get(image, size[0], size[1]);
+    }
+    
+    /** The number of sprites cached. */
+    int size() {
+        return sprites.size();
+    }
+    
+    /**
+     * The width and height of an image scaled to fit the box: the longer side is set to the box's, keeping the aspect
+     * ratio. Same as {@link FieldItem} has always done it.
+     */
+    static double[] fitSize(double imageWidth, double imageHeight, double maxWidth, double maxHeight) {
+        double aspectRatio = imageWidth / imageHeight;
+        if (imageWidth > imageHeight) {
+            return new double[] {maxWidth, maxWidth / aspectRatio};
+        } else {
+            return new double[] {maxHeight * aspectRatio, maxHeight};
+        }
+    }
+    
+    // The image resampled to the nearest whole number of pixels, or the image itself if it can't be read. Uses the
+    // copy scaled at build time if there is one.
+    private static Image resample(Image image, double width, double height) {
+        PixelReader reader = image.getPixelReader();
+        int targetWidth = Math.max(1, (int) Math.round(width));
+        int targetHeight = Math.max(1, (int) Math.round(height));
+        Image prescaled = AssetManager.getPrescaled(image, targetWidth, targetHeight);
+        if (prescaled != null) return prescaled;
+        if (reader == null || image.getWidth() < 1 || image.getHeight() < 1) return image;
+        
+        int sourceWidth = (int) image.getWidth();
+        int sourceHeight = (int) image.getHeight();
+        int[] source = new int[sourceWidth * sourceHeight];
+        reader.getPixels(0, 0, sourceWidth, sourceHeight, PixelFormat.getIntArgbInstance(), source, 0, sourceWidth);
+        
+        int[] target = resample(source, sourceWidth, sourceHeight, targetWidth, targetHeight);
+        WritableImage resampled = new WritableImage(targetWidth, targetHeight);
+        resampled.getPixelWriter().setPixels(0, 0, targetWidth, targetHeight, PixelFormat.getIntArgbInstance(),
+                target, 0, targetWidth);
+        return resampled;
+    }
+    
+    /**
+     * Resample ARGB pixels to a new size. Each new pixel is the average of the part of the image it covers, weighted by
+     * how much of each old pixel is in it. Colours are weighted by alpha too, so transparent pixels don't darken edges.
+     */
+    static int[] resample(int[] source, int sourceWidth, int sourceHeight, int targetWidth, int targetHeight) {
+        int[] target = new int[targetWidth * targetHeight];
+        double scaleX = (double) sourceWidth / targetWidth;
+        double scaleY = (double) sourceHeight / targetHeight;
+        
+        for (int ty = 0; ty < targetHeight; ty++) {
+            double top = ty * scaleY;
+            double bottom = (ty + 1) * scaleY;
+            for (int tx = 0; tx < targetWidth; tx++) {
+                double left = tx * scaleX;
+                double right = (tx + 1) * scaleX;
+                
+                double a = 0, r = 0, g = 0, b = 0;
+                for (int sy = (int) top; sy < bottom && sy < sourceHeight; sy++) {
+                    double weightY = Math.min(bottom, sy + 1) - Math.max(top, sy);
+                    for (int sx = (int) left; sx < right && sx < sourceWidth; sx++) {
+                        double weight = weightY * (Math.min(right, sx + 1) - Math.max(left, sx));
+                        int pixel = source[sy * sourceWidth + sx];
+                        double alpha = (pixel >>> 24) * weight;
+                        a += alpha;
+                        r += ((pixel >> 16) & 0xff) * alpha;
+                        g += ((pixel >> 8) & 0xff) * alpha;
+                        b += (pixel & 0xff) * alpha;
+                    }
+                }
+                
+                double area = scaleX * scaleY;
+                int alpha = (int) Math.round(a / area);
+                if (alpha > 0) {
+                    target[ty * targetWidth + tx] = Math.min(alpha, 0xff) << 24 | (int) Math.round(r / a) << 16
+                            | (int) Math.round(g / a) << 8 | (int) Math.round(b / a);
+                }
+            }
+        }
+        
+        return target;
+    }
+    
+    @Data
+    private static class Key {
+        private final Image image; // Images are only equal to themselves
+        private final double width;
+        private final double height;
+    }
+    
+}
\ No newline at end of file
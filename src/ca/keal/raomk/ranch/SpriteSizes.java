@@ -0,0 +1,49 @@
+package ca.keal.raomk.ranch;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The sizes the assets are drawn at before any zooming, so the build can scale them down ahead of time (see the
+ * packAtlas task). Sizes are rounded to whole pixels, same as {@link SpriteCache} rounds them.
+ */
+final class SpriteSizes {
+    
+    private SpriteSizes() {}
+    
+    /** The sizes, as {width, height}, that the asset at {@code path} is drawn at. Empty if it isn't scaled down. */
+    static List<int[]> of(@NonNull String path, double imageWidth, double imageHeight) {
+        double aspectRatio = imageWidth / imageHeight;
+        List<int[]> sizes = new ArrayList<>();
+        
+        if (path.startsWith("cow/")) {
+            add(sizes, SpriteCache.fitSize(imageWidth, imageHeight, Cow.SIZE, Cow.SIZE));
+        } else if (path.startsWith("flowers")) {
+            // FieldItem rounds the box the image has to fit in
+            add(sizes, SpriteCache.fitSize(imageWidth, imageHeight,
+                    Math.round(Flower.MAX_WIDTH), Math.round(Flower.MAX_HEIGHT)));
+        } else if (path.startsWith("fence_arrow/up_") || path.startsWith("fence_arrow/down_")) {
+            // Horizontal fences
+            add(sizes, FenceStrip.ARROW_LENGTH * aspectRatio, FenceStrip.ARROW_LENGTH);
+        } else if (path.startsWith("fence_arrow/")) {
+            // Vertical fences
+            add(sizes, FenceStrip.ARROW_LENGTH, FenceStrip.ARROW_LENGTH / aspectRatio);
+        } else if (path.equals("fence_vertical") || path.equals("fence_horizontal")) {
+            Fence.Orientation orientation = path.equals("fence_vertical")
+                    ? Fence.Orientation.VERTICAL : Fence.Orientation.HORIZONTAL;
+            double height = Fence.getSegmentHeight(orientation, Ranch.GRID_LINE_GAP);
+            add(sizes, aspectRatio * height, height);
+        } else if (path.equals("play_again")) {
+            add(sizes, PlayAgainButton.HEIGHT * aspectRatio, PlayAgainButton.HEIGHT);
+        }
+        
+        return sizes;
+    }
+    
+    private static void add(List<int[]> sizes, double... size) {
+        sizes.add(new int[] {(int) Math.max(1, Math.round(size[0])), (int) Math.max(1, Math.round(size[1]))});
+    }
+    
+}
\ No newline at end of file
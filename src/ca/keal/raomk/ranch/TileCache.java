@@ -0,0 +1,103 @@
+package ca.keal.raomk.ranch;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A least-recently-used cache of square tiles that together cover an infinite plane, for drawing things that never
+ * move relative to the origin. Tile (column, row) covers the pixels from {@code column * tileSize} to
+ * {@code (column + 1) * tileSize} right of the origin, and the same for rows below it. Tiles are rendered the first
+ * time they're needed and kept until they're the least recently used or the cache is invalidated. Not thread-safe.
+ */
+final class TileCache<T> {
+    
+    /** Renders a tile. */
+    @FunctionalInterface
+    interface Renderer<T> {
+        T render(int column, int row);
+    }
+    
+    /** Draws a tile with its top-left corner at (x, y) on the canvas. */
+    @FunctionalInterface
+    interface TileAction<T> {
+        void accept(T tile, double x, double y);
+    }
+    
+    @Getter private final int tileSize;
+    private final int capacity;
+    private final Renderer<T> renderer;
+    private final Map<Long, T> tiles;
+    
+    /** How many tiles have been rendered, and how many were found already rendered */
+    @Getter private long renders = 0;
+    @Getter private long hits = 0;
+    
+    TileCache(int tileSize, int capacity, @NonNull Renderer<T> renderer) {
+        if (tileSize < 1 || capacity < 1) {
+            throw new IllegalArgumentException("Tile size and capacity must be positive");
+        }
+        this.tileSize = tileSize;
+        this.capacity = capacity;
+        this.renderer = renderer;
+        
+        // Access order, so the eldest entry is the least recently used
+        tiles = new LinkedHashMap<Long, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, T> eldest) {
+                return size() > TileCache.this.capacity;
+            }
+        };
+    }
+    
+    /**
+     * Call {@code action} on each tile that overlaps a canvas of the given size whose origin is at
+     * (originX, originY), rendering the ones that aren't cached. Returns how many tiles there were.
+     */
+    int forEachVisible(double originX, double originY, double width, double height, TileAction<? super T> action) {
+        // Tiles start on whole pixels, so the origin is rounded to keep them from being blurred
+        double roundedX = Math.round(originX);
+        double roundedY = Math.round(originY);
+        int firstColumn = (int) Math.floor(-roundedX / tileSize);
+        int lastColumn = (int) Math.ceil((width - roundedX) / tileSize) - 1;
+        int firstRow = (int) Math.floor(-roundedY / tileSize);
+        int lastRow = (int) Math.ceil((height - roundedY) / tileSize) - 1;
+        
+        int count = 0;
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int column = firstColumn; column <= lastColumn; column++) {
+                action.accept(get(column, row), roundedX + column * tileSize, roundedY + row * tileSize);
+                count++;
+            }
+        }
+        return count;
+    }
+    
+    /** Get a tile, rendering it if it isn't cached. */
+    T get(int column, int row) {
+        Long key = ((long) column << 32) | (row & 0xffffffffL);
+        T tile = tiles.get(key);
+        if (tile != null) {
+            hits++;
+            return tile;
+        }
+        
+        renders++;
+        tile = renderer.render(column, row);
+        tiles.put(key, tile);
+        return tile;
+    }
+    
+    /** Forget all the tiles, e.g. because what they show has changed. */
+    void invalidate() {
+        tiles.clear();
+    }
+    
+    /** The number of tiles cached. */
+    int size() {
+        return tiles.size();
+    }
+    
+}
\ No newline at end of file
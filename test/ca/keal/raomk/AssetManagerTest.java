@@ -0,0 +1,31 @@
+package ca.keal.raomk;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AssetManagerTest {
+    
+    @Test
+    void everyAssetIsPreloaded() throws IOException {
+        Path assets = Paths.get("res", "assets");
+        List<String> onDisk;
+        try (Stream<Path> files = Files.walk(assets)) {
+            onDisk = files.map(file -> assets.relativize(file).toString().replace('\\', '/'))
+                    .filter(path -> path.endsWith(".png"))
+                    .map(path -> path.substring(0, path.length() - ".png".length()))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        assertEquals(onDisk, AssetManager.ASSETS);
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package ca.keal.raomk.dr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DomainRangeCacheTest {
+    
+    @Test
+    void hitsReturnSameInstance() throws ParseException {
+        DomainRangeCache cache = new DomainRangeCache(4);
+        DomainRange first = cache.parse("x > 3", 'x');
+        DomainRange second = cache.parse("x > 3", 'x');
+        assertAll(
+                () -> assertSame(first, second),
+                () -> assertEquals(DomainRange.parse("x > 3", 'x'), first),
+                () -> assertEquals(1, cache.getHits()),
+                () -> assertEquals(1, cache.getMisses())
+        );
+    }
+    
+    @Test
+    void keyIncludesVariable() throws ParseException {
+        DomainRangeCache cache = new DomainRangeCache(4);
+        cache.parse("x > 3", 'x');
+        assertThrows(ParseException.class, () -> cache.parse("x > 3", 'y'));
+        assertEquals(2, cache.getMisses());
+    }
+    
+    @Test
+    void failuresAreCached() {
+        DomainRangeCache cache = new DomainRangeCache(4);
+        ParseException first = assertThrows(ParseException.class, () -> cache.parse("x >", 'x'));
+        ParseException second = assertThrows(ParseException.class, () -> cache.parse("x >", 'x'));
+        assertThrows(Interval.EqualBoundsException.class, () -> cache.parse("1 <= x <= 1", 'x'));
+        assertThrows(Interval.EqualBoundsException.class, () -> cache.parse("1 <= x <= 1", 'x'));
+        assertAll(
+                () -> assertEquals(first.getMessage(), second.getMessage()),
+                () -> assertEquals(2, cache.getHits()),
+                () -> assertEquals(2, cache.getMisses())
+        );
+    }
+    
+    @Test
+    void tryParseSharesEntriesWithParse() throws ParseException {
+        DomainRangeCache cache = new DomainRangeCache(4);
+        DomainRange parsed = cache.parse("x > 3", 'x');
+        ParseResult<DomainRange> failed = cache.tryParse("x >", 'x');
+        assertAll(
+                () -> assertSame(parsed, cache.tryParse("x > 3", 'x').getValue()),
+                () -> assertSame(failed, cache.tryParse("x >", 'x')),
+                () -> assertEquals(0, failed.getErrorOffset()),
+                () -> assertEquals(2, cache.getHits()),
+                () -> assertEquals(2, cache.getMisses())
+        );
+    }
+    
+    @Test
+    void evictsLeastRecentlyUsed() throws ParseException {
+        DomainRangeCache cache = new DomainRangeCache(2);
+        cache.parse("x > 1", 'x');
+        cache.parse("x > 2", 'x');
+        cache.parse("x > 1", 'x'); // x > 2 is now the least recently used
+        cache.parse("x > 3", 'x');
+        assertEquals(1, cache.getEvictions());
+        
+        cache.parse("x > 1", 'x');
+        cache.parse("x > 2", 'x');
+        assertAll(
+                () -> assertEquals(2, cache.size()),
+                () -> assertEquals(2, cache.getHits()),
+                () -> assertEquals(4, cache.getMisses()),
+                () -> assertEquals(2, cache.getEvictions())
+        );
+    }
+    
+    @Test
+    void concurrentParses() throws Exception {
+        DomainRangeCache cache = new DomainRangeCache(8);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<DomainRange>> futures = new ArrayList<>();
+            for (int i = 0; i < 4000; i++) {
+                String input = "x > " + (i % 16);
+                futures.add(executor.submit(() -> cache.parse(input, 'x')));
+            }
+            for (int i = 0; i < futures.size(); i++) {
+                assertEquals(DomainRange.parse("x > " + (i % 16), 'x'), futures.get(i).get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+        assertAll(
+                () -> assertEquals(4000, cache.getHits() + cache.getMisses()),
+                () -> assertEquals(8, cache.size())
+        );
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,330 @@
+package ca.keal.raomk.dr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DomainRangeParserTest {
+    
+    // Fragments that random inputs are made out of - a mix of legal and illegal bits
+    private static final String[] FRAGMENTS = {
+            "x", "y", "q", "<", "<=", "≤", ">", ">=", "≥", "=", "or", "xor", "o", " ", " ", " ", "\t",
+            "0", "1", "-1", "2.5", "-3.75", "10", ".", "-", "5.", "00", "1.0", "-0", "a", "*", "≤=", "orx",
+            "12345678901234567", "0.1234567890123456789", "9999999999999999999999999999999999"
+    };
+    
+    private static final String[] HAND_PICKED = {
+            "", " ", "x", "or", "x > 3", "x>3", "0<x<5", "0 < x < 5 or x > 7", "x < -4.5 or 20 <= x or -1 < x ≤ 2",
+            "10 >= x ≥ 1.2", "x>3or x<1", "xor", "x<=-3", "x<3 or", "or x > 4", "x > 1 or or x < 0", "3-4 < x",
+            "1 <= x <= 1", "1 < x < 1", "5 < x < 3", "x >< 3", "x << 3", "x < 3 < 4", "x < y", "1.5.5 < x",
+            "-0 < x < 0", "x > 99999999999999999999999999999999999999999999999999999999999999999999999999999999999"
+                    + "99999999999999999999999999999999999999999999999999999999999999999999999999999999999999999999"
+                    + "99999999999999999999999999999999999999999999999999999999999999999999999999999999999999999999"
+                    + "999999999999999999999999999999999999999999999999999999999999999999999999",
+            "x < 0.30000000000000004", "x > 0.1 or x < 0.2", "2 > x > -2 or 4 ≥ x ≥ 3", "x > 3", "x > 3\n",
+    };
+    
+    @Test
+    void handPickedInputsMatchRegexParser() {
+        for (String input : HAND_PICKED) {
+            assertSameResult(input, 'x');
+        }
+    }
+    
+    @Test
+    void randomInputsMatchRegexParser() {
+        Random random = new Random(20171130);
+        for (int i = 0; i < 20000; i++) {
+            StringBuilder input = new StringBuilder();
+            int numFragments = random.nextInt(12);
+            for (int j = 0; j < numFragments; j++) {
+                input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            assertSameResult(input.toString(), random.nextInt(4) == 0 ? 'y' : 'x');
+        }
+    }
+    
+    @Test
+    void randomWellFormedInputsMatchRegexParser() {
+        // Random inputs mostly fail early, so make sure lots of valid ones are compared too
+        Random random = new Random(1234);
+        String[] operators = {"<", "<=", "≤", ">", ">=", "≥"};
+        for (int i = 0; i < 5000; i++) {
+            List<String> clauses = new ArrayList<>();
+            int numClauses = random.nextInt(5) + 1;
+            for (int j = 0; j < numClauses; j++) {
+                String number1 = randomNumber(random);
+                String number2 = randomNumber(random);
+                String operator1 = operators[random.nextInt(operators.length)];
+                String operator2 = operators[random.nextInt(operators.length)];
+                switch (random.nextInt(3)) {
+                    case 0:
+                        clauses.add("x " + operator1 + " " + number1);
+                        break;
+                    case 1:
+                        clauses.add(number1 + operator1 + "x");
+                        break;
+                    default:
+                        clauses.add(number1 + " " + operator1 + " x " + operator2 + " " + number2);
+                }
+            }
+            assertSameResult(String.join(" or ", clauses), 'x');
+        }
+    }
+    
+    @Test
+    void tryParseMatchesParse() {
+        Random random = new Random(7);
+        List<String> inputs = new ArrayList<>(Arrays.asList(HAND_PICKED));
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder input = new StringBuilder();
+            int numFragments = random.nextInt(12);
+            for (int j = 0; j < numFragments; j++) {
+                input.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+            }
+            inputs.add(input.toString());
+        }
+        
+        for (String input : inputs) {
+            ParseResult<DomainRange> result = DomainRange.tryParse(input, 'x');
+            try {
+                DomainRange parsed = DomainRange.parse(input, 'x');
+                assertTrue(result.isSuccess(), input);
+                assertEquals(parsed, result.getValue(), input);
+                assertNull(result.getError(), input);
+            } catch (ParseException | Interval.EqualBoundsException e) {
+                assertFalse(result.isSuccess(), input);
+                assertNull(result.getValue(), input);
+                assertEquals(e.getMessage(), result.getError(), input);
+                assertEquals(e instanceof Interval.EqualBoundsException, result.isEqualBounds(), input);
+                assertTrue(result.getErrorOffset() >= 0 && result.getErrorOffset() <= input.length(), input);
+            }
+        }
+    }
+    
+    @Test
+    void errorOffsets() {
+        assertErrorOffset("x > 3 * 4", 6);
+        assertErrorOffset("or x > 4", 0);
+        assertErrorOffset("x > 1 or or x < 0", 9);
+        assertErrorOffset("x < 3 or", 8);
+        assertErrorOffset("", 0);
+        assertErrorOffset("x > 3 or x < 4 < 5 < 6", 9);
+        assertErrorOffset("x > 3 or x < <", 13);
+        assertErrorOffset("x < y", 4);
+        assertErrorOffset("x < x", 4);
+        assertErrorOffset("3 < 4", 4);
+        assertErrorOffset("1 < 4 < x", 4);
+        assertErrorOffset("1 < x > 2", 6);
+        assertErrorOffset("x > 1 or 5 < x < 3", 9);
+        assertErrorOffset("x > 1 or  1 <= x <= 1", 10);
+    }
+    
+    @Test
+    void parseExceptionHasOffset() {
+        ParseException e = assertThrows(ParseException.class, () -> DomainRange.parse("x < 1 or x > 2 or", 'x'));
+        assertEquals(17, e.getOffset());
+        
+        // Interval.parse has no characters, only tokens
+        e = assertThrows(ParseException.class, () -> Interval.parse(Arrays.asList("1", "<", "x", ">", "2"), 'x'));
+        assertEquals(3, e.getOffset());
+    }
+    
+    private static void assertErrorOffset(String input, int offset) {
+        ParseResult<DomainRange> result = DomainRange.tryParse(input, 'x');
+        assertFalse(result.isSuccess(), input);
+        assertEquals(offset, result.getErrorOffset(), input + ": " + result.getError());
+    }
+    
+    @Test
+    void parseNumberMatchesParseDouble() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            String number = randomNumber(random);
+            assertEquals(Double.doubleToLongBits(Double.parseDouble(number)),
+                    Double.doubleToLongBits(DomainRangeParser.parseNumber(number, 0, number.length())), number);
+        }
+    }
+    
+    @Test
+    void parseNumberRejectsNonNumbers() {
+        for (String notNumber : new String[] {"", "-", ".", "1.", ".5", "1.2.3", "--1", "1-2", "1e5", "x"}) {
+            assertTrue(Double.isNaN(DomainRangeParser.parseNumber(notNumber, 0, notNumber.length())), notNumber);
+        }
+    }
+    
+    private static String randomNumber(Random random) {
+        StringBuilder number = new StringBuilder();
+        if (random.nextBoolean()) number.append('-');
+        int integerDigits = random.nextInt(random.nextInt(5) == 0 ? 25 : 5) + 1;
+        for (int i = 0; i < integerDigits; i++) number.append(random.nextInt(10));
+        if (random.nextBoolean()) {
+            number.append('.');
+            int fractionDigits = random.nextInt(random.nextInt(5) == 0 ? 25 : 5) + 1;
+            for (int i = 0; i < fractionDigits; i++) number.append(random.nextInt(10));
+        }
+        return number.toString();
+    }
+    
+    private static void assertSameResult(String input, char var) {
+        Object expected = outcome(() -> RegexParser.parse(input, var));
+        Object actual = outcome(() -> DomainRange.parse(input, var));
+        assertEquals(expected, actual, "Input: \"" + input + "\"");
+    }
+    
+    // Either the parsed DomainRange or the class and message of the exception thrown. The message is shown to the
+    // player, so it has to match; the offset doesn't, since the regex parser never knew where an error was (-1).
+    private static Object outcome(ParseFunction function) {
+        try {
+            return function.parse();
+        } catch (Exception e) {
+            return e.getClass().getSimpleName() + ": " + e.getMessage();
+        }
+    }
+    
+    private interface ParseFunction {
+        DomainRange parse() throws Exception;
+    }
+    
+    /**
+     * The original regex-based parser, kept to check the hand-written parser against.
+     */
+    private static class RegexParser {
+        
+        private static final String LEGAL_TOKENS_REGEX = "<|≤|<=|>|≥|>=|or";
+        private static final String NUMBER_REGEX = "-?\\d+(\\.\\d+)?";
+        
+        static DomainRange parse(String input, char var) throws ParseException {
+            List<String> tokens = tokenize(input);
+            
+            List<String> illegals = tokens.stream()
+                    .filter(token -> !(token.matches(LEGAL_TOKENS_REGEX)))
+                    .filter(token -> !(token.equals(String.valueOf(var))))
+                    .filter(token -> !(token.matches(NUMBER_REGEX)))
+                    .collect(Collectors.toList());
+            if (illegals.size() > 0) {
+                // The original printed "Optional[a, b]" by mistake; the hand-written parser lists them as "a, b"
+                throw new ParseException("Illegal tokens: " + String.join(", ", illegals));
+            }
+            
+            List<List<String>> intervalsTokens = new ArrayList<>();
+            int firstOr = tokens.indexOf("or");
+            while (firstOr != -1) {
+                if (firstOr == 0 || firstOr == tokens.size()) {
+                    throw new ParseException("Extraneous \"or\"");
+                } else {
+                    intervalsTokens.add(tokens.subList(0, firstOr));
+                    tokens = tokens.subList(firstOr + 1, tokens.size());
+                }
+                firstOr = tokens.indexOf("or");
+            }
+            intervalsTokens.add(tokens);
+            
+            List<Interval> intervals = new ArrayList<>();
+            for (List<String> intervalTokens : intervalsTokens) {
+                intervals.add(parseInterval(intervalTokens, var));
+            }
+            return new DomainRange(intervals);
+        }
+        
+        private static List<String> tokenize(String input) {
+            String[] split = input.split(
+                    "(?<=[a-zA-Z])(?=[0-9.\\-])"
+                    + "|(?<=[0-9.\\-])(?=[a-zA-Z])"
+                    + "|(?<=[a-zA-Z0-9.\\-\\s])(?=[^a-zA-Z0-9.\\-])"
+                    + "|(?<=[^a-zA-Z0-9.\\-])(?=[a-zA-Z0-9.\\-\\s])");
+            return Arrays.stream(split).filter(str -> !str.matches("^\\s*$")).collect(Collectors.toList());
+        }
+        
+        private static Interval parseInterval(List<String> tokens, char var) throws ParseException {
+            if (tokens.size() != 3 && tokens.size() != 5) {
+                throw new ParseException("Interval has wrong number of parts");
+            }
+            
+            for (int i = 0; i < tokens.size(); i++) {
+                String token = tokens.get(i);
+                if (i % 2 == 0) {
+                    if (!token.matches(NUMBER_REGEX) && !token.equals(String.valueOf(var))) {
+                        throw new ParseException("Token " + (i + 1) + " must be a number or the variable");
+                    }
+                } else {
+                    if (!token.matches(">|>=|≥|<|<=|≤")) {
+                        throw new ParseException("Token " + (i + 1) + " must be a comparison operator");
+                    }
+                }
+            }
+            
+            return tokens.size() == 3 ? parseUnbounded(tokens, var) : parseBounded(tokens, var);
+        }
+        
+        private static Interval parseUnbounded(List<String> tokens, char var) throws ParseException {
+            boolean varFirst = tokens.get(0).equals(String.valueOf(var));
+            
+            if (!tokens.get(varFirst ? 0 : 2).equals(String.valueOf(var))
+                    || !tokens.get(varFirst ? 2 : 0).matches(NUMBER_REGEX)) {
+                throw new ParseException("Interval must alternate variable-operator-number or vice versa");
+            }
+            
+            String operator = tokens.get(1);
+            boolean boundUpper = isOperatorLessThan(operator) == varFirst;
+            Interval.Bound bound = new Interval.Bound(Double.parseDouble(tokens.get(varFirst ? 2 : 0)),
+                    isOperatorInclusive(operator));
+            
+            if (boundUpper) {
+                return new Interval(bound, Interval.Bound.NEG_INFINITY);
+            } else {
+                return new Interval(Interval.Bound.INFINITY, bound);
+            }
+        }
+        
+        private static Interval parseBounded(List<String> tokens, char var) throws ParseException {
+            if (!tokens.get(2).equals(String.valueOf(var))) {
+                throw new ParseException("Variable must be in the middle of a double-bounded interval");
+            }
+            
+            if (!tokens.get(0).matches(NUMBER_REGEX) || !tokens.get(4).matches(NUMBER_REGEX)) {
+                throw new ParseException("Numbers must be the first and last of a double-bounded interval");
+            }
+            
+            String operator1 = tokens.get(1);
+            String operator2 = tokens.get(3);
+            
+            boolean lessThan = isOperatorLessThan(operator1);
+            if (lessThan != isOperatorLessThan(operator2)) {
+                throw new ParseException("Operators must be the same direction in a double-bounded interval");
+            }
+            
+            Interval.Bound first = new Interval.Bound(Double.parseDouble(tokens.get(0)), isOperatorInclusive(operator1));
+            Interval.Bound second = new Interval.Bound(Double.parseDouble(tokens.get(4)),
+                    isOperatorInclusive(operator2));
+            Interval.Bound lower = lessThan ? first : second;
+            Interval.Bound upper = lessThan ? second : first;
+            
+            if (lower.compareTo(upper) > 0) {
+                throw new ParseException("Lower bound cannot be greater than upper bound");
+            }
+            
+            return new Interval(lower, upper);
+        }
+        
+        private static boolean isOperatorInclusive(String operator) {
+            return operator.equals("<=") || operator.equals("≤") || operator.equals(">=") || operator.equals("≥");
+        }
+        
+        private static boolean isOperatorLessThan(String operator) {
+            return operator.equals("<") || operator.equals("<=") || operator.equals("≤");
+        }
+        
+    }
+    
+}
\ No newline at end of file
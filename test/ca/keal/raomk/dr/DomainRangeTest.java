@@ -4,8 +4,10 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -102,6 +104,62 @@ class DomainRangeTest {
         );
     }
     
+    @Test
+    void testSimplificationChainOutOfOrder() throws Interval.EqualBoundsException {
+        // [2, 3] only joins up with [0, 1] once [1, 2] has been merged in
+        DomainRange dr = new DomainRange(
+                new Interval(0, true, 1, true),
+                new Interval(2, true, 3, true),
+                new Interval(1, true, 2, true));
+        assertEquals(Collections.singleton(new Interval(0, true, 3, true)), dr.getIntervals());
+    }
+    
+    @Test
+    void testSimplificationDuplicateExclusive() throws Interval.EqualBoundsException {
+        DomainRange dr = new DomainRange(new Interval(0, false, 1, false), new Interval(0, false, 1, false));
+        assertEquals(Collections.singleton(new Interval(0, false, 1, false)), dr.getIntervals());
+    }
+    
+    @Test
+    void testSimplificationExclusiveMeetingJoinedByInclusive() throws Interval.EqualBoundsException {
+        // (1, 2) only touches (0, 1) and [1, 3) where they meet at 1 - it must still be merged in
+        DomainRange dr = new DomainRange(
+                new Interval(0, false, 1, false),
+                new Interval(1, false, 2, false),
+                new Interval(1, true, 3, false));
+        assertEquals(Collections.singleton(new Interval(0, false, 3, false)), dr.getIntervals());
+    }
+    
+    @Test
+    void getIntervalsIsSorted() throws Interval.EqualBoundsException {
+        DomainRange dr = new DomainRange(
+                new Interval(new Interval.Bound(20, true), Interval.Bound.INFINITY),
+                new Interval(-1, false, 2, true),
+                new Interval(Interval.Bound.NEG_INFINITY, new Interval.Bound(-4.5, false)),
+                new Interval(1.5, true, 10, true));
+        assertAll(
+                () -> assertEquals(Arrays.asList(
+                        new Interval(Interval.Bound.NEG_INFINITY, new Interval.Bound(-4.5, false)),
+                        new Interval(-1, false, 10, true),
+                        new Interval(new Interval.Bound(20, true), Interval.Bound.INFINITY)
+                ), new ArrayList<>(dr.getIntervals())),
+                () -> assertEquals("(-Infinity, -4.5) or (-1.0, 10.0] or [20.0, Infinity)", dr.toString())
+        );
+    }
+    
+    @Test
+    void testSimplificationManyIntervals() throws Interval.EqualBoundsException {
+        // Lots of "or"s: [0, 1), [1, 2), ... all in a shuffled order should merge into [0, n)
+        int n = 10000;
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            intervals.add(new Interval(i, true, i + 1, false));
+        }
+        Collections.shuffle(intervals, new Random(7));
+        DomainRange dr = new DomainRange(intervals);
+        assertEquals(Collections.singleton(new Interval(0, true, n, false)), dr.getIntervals());
+    }
+    
     @Test
     void parseComprehensiveSuccess() throws ParseException, Interval.EqualBoundsException {
         String drStr = "x < -4.5 or 20 <= x or -1 < x ≤ 2 or 10 >= x ≥ 1.2";
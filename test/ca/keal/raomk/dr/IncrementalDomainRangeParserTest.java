@@ -0,0 +1,124 @@
+package ca.keal.raomk.dr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IncrementalDomainRangeParserTest {
+    
+    private static final String EDIT_CHARS = "x<>=≤≥ 0123456789.-o r";
+    
+    @Test
+    void editingOneClauseOnlyParsesThatClause() {
+        IncrementalDomainRangeParser parser = new IncrementalDomainRangeParser('x');
+        String input = clauses(60);
+        assertTrue(parser.parse(input).isSuccess());
+        assertEquals(60, parser.getClausesParsed());
+        
+        // Change the number in the middle clause
+        String edited = input.replace("60 <= x < 61", "60 <= x < 61.5");
+        ParseResult<DomainRange> result = parser.parse(edited);
+        assertAll(
+                () -> assertEquals(DomainRange.parse(edited, 'x'), result.getValue()),
+                () -> assertEquals(61, parser.getClausesParsed()),
+                () -> assertEquals(59, parser.getClausesReused())
+        );
+    }
+    
+    @Test
+    void insertingAClauseReusesTheOthers() {
+        IncrementalDomainRangeParser parser = new IncrementalDomainRangeParser('x');
+        String input = clauses(10);
+        parser.parse(input);
+        
+        String edited = input.replace(" or 10 <= x", " or 500 < x < 501 or 10 <= x");
+        assertEquals(DomainRange.tryParse(edited, 'x').getValue(), parser.parse(edited).getValue());
+        assertEquals(11, parser.getClausesParsed());
+        assertEquals(10, parser.getClausesReused());
+    }
+    
+    @Test
+    void failedParseKeepsClausesOfLastSuccess() {
+        IncrementalDomainRangeParser parser = new IncrementalDomainRangeParser('x');
+        String input = clauses(10);
+        parser.parse(input);
+        
+        // Half-way through retyping a clause, then finished
+        String halfTyped = input.replace("8 <= x < 9", "8 <= x <");
+        assertEquals(DomainRange.tryParse(halfTyped, 'x').getError(), parser.parse(halfTyped).getError());
+        String retyped = input.replace("8 <= x < 9", "8 <= x < 9.5");
+        assertEquals(DomainRange.tryParse(retyped, 'x').getValue(), parser.parse(retyped).getValue());
+        
+        // Each parse re-parsed only the clause being typed
+        assertEquals(12, parser.getClausesParsed());
+    }
+    
+    @Test
+    void editsNextToOrAreNotMissed() {
+        // Joining a letter onto an "or" makes it an illegal token, even though the clauses around it are the same
+        for (String edited : new String[] {"x > 1 orx > 2", "x > 1 xor x > 2", "x > 1 or x > 2 orx > 3",
+                "xx > 1 or x > 2 or x > 3", "x > 1 or or x > 3", "x > 1 oor x > 2 or x > 3", "x > 1 or x > 2 or"}) {
+            IncrementalDomainRangeParser parser = new IncrementalDomainRangeParser('x');
+            parser.parse("x > 1 or x > 2 or x > 3");
+            ParseResult<DomainRange> result = parser.parse(edited);
+            assertFalse(result.isSuccess(), edited);
+            assertEquals(DomainRange.tryParse(edited, 'x').getError(), result.getError(), edited);
+        }
+    }
+    
+    @Test
+    void randomEditsMatchTryParse() {
+        Random random = new Random(8);
+        IncrementalDomainRangeParser parser = new IncrementalDomainRangeParser('x');
+        StringBuilder input = new StringBuilder(clauses(20));
+        for (int i = 0; i < 20000; i++) {
+            // Mostly single-character edits like typing, but sometimes start over or cut/paste part of it
+            int edit = random.nextInt(100);
+            if (edit == 0) {
+                input = new StringBuilder(clauses(random.nextInt(30) + 1));
+            } else if (edit < 5 && input.length() > 0) {
+                int start = random.nextInt(input.length());
+                int end = start + random.nextInt(input.length() - start) + 1;
+                String cut = input.substring(start, end);
+                input.delete(start, end);
+                if (random.nextBoolean()) {
+                    input.insert(random.nextInt(input.length() + 1), cut);
+                }
+            } else if (edit < 10 && input.length() > 0) {
+                // Paste a copy of part of it
+                int start = random.nextInt(input.length());
+                input.insert(random.nextInt(input.length() + 1), input.substring(start, Math.min(input.length(),
+                        start + random.nextInt(40) + 1)));
+            } else if (input.length() > 0 && random.nextBoolean()) {
+                input.deleteCharAt(random.nextInt(input.length()));
+            } else {
+                input.insert(random.nextInt(input.length() + 1), EDIT_CHARS.charAt(random.nextInt(EDIT_CHARS.length())));
+            }
+            
+            String text = input.toString();
+            ParseResult<DomainRange> expected = DomainRange.tryParse(text, 'x');
+            ParseResult<DomainRange> actual = parser.parse(text);
+            assertEquals(expected.getValue(), actual.getValue(), text);
+            assertEquals(expected.getError(), actual.getError(), text);
+            assertEquals(expected.getErrorOffset(), actual.getErrorOffset(), text);
+            assertEquals(expected.isEqualBounds(), actual.isEqualBounds(), text);
+        }
+        assertTrue(parser.getClausesReused() > parser.getClausesParsed());
+    }
+    
+    // 2i <= x < 2i + 1 or ...
+    private static String clauses(int count) {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) input.append(" or ");
+            input.append(2*i).append(" <= x < ").append(2*i + 1);
+        }
+        return input.toString();
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package ca.keal.raomk.dr;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks union, intersect, difference and complement against brute force: each result is sampled at every bound and
+ * between every bound, and compared to asking the original intervals directly.
+ */
+class IntervalSetAlgebraTest {
+    
+    private static final int TRIALS = 2000;
+    private static final double SMALL = 1e-6;
+    
+    @Test
+    void union() {
+        checkAgainstBruteForce(new Random(1), IntervalSet::union, (a, b) -> a || b);
+    }
+    
+    @Test
+    void intersect() {
+        checkAgainstBruteForce(new Random(2), IntervalSet::intersect, (a, b) -> a && b);
+    }
+    
+    @Test
+    void difference() {
+        checkAgainstBruteForce(new Random(3), IntervalSet::difference, (a, b) -> a && !b);
+    }
+    
+    @Test
+    void complement() {
+        checkAgainstBruteForce(new Random(4), (a, b) -> a.complement(), (a, b) -> !a);
+    }
+    
+    @Test
+    void examples() throws ParseException {
+        DomainRange domain = DomainRange.parse("x < -4 or -1 <= x <= 3 or x > 5", 'x');
+        DomainRange answer = DomainRange.parse("x < -4 or -1 < x < 3 or x >= 5", 'x');
+        assertAll(
+                () -> assertEquals(DomainRange.parse("-4 <= x < -1 or 3 < x <= 5", 'x'), domain.complement()),
+                () -> assertEquals(DomainRange.parse("x < -4 or -1 < x < 3 or x > 5", 'x'), domain.intersect(answer)),
+                () -> assertEquals(DomainRange.parse("x < -4 or -1 <= x <= 3 or x >= 5", 'x'), domain.union(answer)),
+                // the player missed -1 and 3 but those are single points, so there's nothing to show
+                () -> assertEquals(new DomainRange(), domain.difference(answer)),
+                () -> assertEquals(DomainRange.parse("x < 0 or x > 0", 'x'),
+                        DomainRange.parse("x > 0", 'x').union(DomainRange.parse("x < 0", 'x'))),
+                () -> assertEquals(new DomainRange(new Interval(Interval.Bound.NEG_INFINITY, Interval.Bound.INFINITY)),
+                        new DomainRange().complement()),
+                () -> assertEquals(new DomainRange(),
+                        new DomainRange(new Interval(Interval.Bound.NEG_INFINITY, Interval.Bound.INFINITY)).complement())
+        );
+    }
+    
+    @Test
+    void inclusiveInfinity() throws Interval.EqualBoundsException {
+        // x <= a number too big for a double ends up as an inclusive infinity
+        IntervalSet upToInfinity = IntervalSet.of(new Interval(new Interval.Bound(0, true),
+                new Interval.Bound(Double.POSITIVE_INFINITY, true)));
+        IntervalSet complement = upToInfinity.complement();
+        assertAll(
+                () -> assertEquals(IntervalSet.of(new Interval(Interval.Bound.NEG_INFINITY,
+                        new Interval.Bound(0, false))), complement),
+                () -> assertEquals(upToInfinity, complement.complement().union(upToInfinity))
+        );
+    }
+    
+    private static void checkAgainstBruteForce(Random random, SetOperator setOp, BooleanOperator booleanOp) {
+        for (int trial = 0; trial < TRIALS; trial++) {
+            List<Interval> intervalsA = randomIntervals(random);
+            List<Interval> intervalsB = randomIntervals(random);
+            IntervalSet result = setOp.apply(IntervalSet.of(intervalsA), IntervalSet.of(intervalsB));
+            
+            Predicate<Double> expected = x -> booleanOp.apply(
+                    intervalsA.stream().anyMatch(interval -> interval.contains(x)),
+                    intervalsB.stream().anyMatch(interval -> interval.contains(x)));
+            
+            // Sample at and between every whole number (all bounds are whole numbers) and far out to each side
+            for (double x = -25; x <= 25; x += 0.5) {
+                // A lone point in the result can't be represented, so it's expected to be dropped
+                boolean isolated = !expected.test(x - SMALL) && !expected.test(x + SMALL);
+                boolean expectedHere = expected.test(x) && !isolated;
+                assertEquals(expectedHere, result.contains(x),
+                        "x = " + x + " with A = " + intervalsA + ", B = " + intervalsB + ", result " + result);
+            }
+            for (double x : new double[] {-1e300, 1e300}) {
+                assertEquals(expected.test(x), result.contains(x),
+                        "x = " + x + " with A = " + intervalsA + ", B = " + intervalsB + ", result " + result);
+            }
+            
+            // The result must be in the same simplified form as any other IntervalSet
+            List<Interval> resultIntervals = new ArrayList<>();
+            for (int i = 0; i < result.size(); i++) {
+                resultIntervals.add(result.getInterval(i));
+            }
+            assertEquals(IntervalSet.of(resultIntervals), result);
+        }
+    }
+    
+    // Random small intervals between -20 and 20, sometimes unbounded, with whole number bounds so they often touch
+    private static List<Interval> randomIntervals(Random random) {
+        List<Interval> intervals = new ArrayList<>();
+        int numIntervals = random.nextInt(6);
+        for (int i = 0; i < numIntervals; i++) {
+            int lower = random.nextInt(40) - 20;
+            int upper = lower + random.nextInt(5) + 1;
+            Interval.Bound lowerBound = random.nextInt(8) == 0 ? Interval.Bound.NEG_INFINITY
+                    : new Interval.Bound(lower, random.nextBoolean());
+            Interval.Bound upperBound = random.nextInt(8) == 0 ? Interval.Bound.INFINITY
+                    : new Interval.Bound(upper, random.nextBoolean());
+            intervals.add(new Interval(lowerBound, upperBound));
+        }
+        return intervals;
+    }
+    
+    private interface SetOperator {
+        IntervalSet apply(IntervalSet a, IntervalSet b);
+    }
+    
+    private interface BooleanOperator {
+        boolean apply(boolean inA, boolean inB);
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,223 @@
+package ca.keal.raomk.dr;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class IntervalSetTest {
+    
+    @Test
+    void ofMergesAndSorts() throws Interval.EqualBoundsException {
+        IntervalSet set = IntervalSet.of(
+                new Interval(new Interval.Bound(10, true), Interval.Bound.INFINITY),
+                new Interval(0, false, 2, true),
+                new Interval(1, true, 3, false));
+        assertAll(
+                () -> assertEquals(2, set.size()),
+                () -> assertEquals(0, set.getLower(0)),
+                () -> assertFalse(set.isLowerInclusive(0)),
+                () -> assertEquals(3, set.getUpper(0)),
+                () -> assertFalse(set.isUpperInclusive(0)),
+                () -> assertEquals(new Interval(0, false, 3, false), set.getInterval(0)),
+                () -> assertEquals(new Interval(new Interval.Bound(10, true), Interval.Bound.INFINITY),
+                        set.getInterval(1))
+        );
+    }
+    
+    @Test
+    void empty() {
+        assertAll(
+                () -> assertTrue(IntervalSet.of().isEmpty()),
+                () -> assertEquals(IntervalSet.EMPTY, IntervalSet.of(new ArrayList<>())),
+                () -> assertEquals("", IntervalSet.EMPTY.toString())
+        );
+    }
+    
+    @Test
+    void indexOf() throws Interval.EqualBoundsException {
+        IntervalSet set = IntervalSet.of(new Interval(0, true, 1, false), new Interval(2, true, 3, false));
+        assertAll(
+                () -> assertEquals(0, set.indexOf(new Interval(0, true, 1, false))),
+                () -> assertEquals(1, set.indexOf(new Interval(2, true, 3, false))),
+                () -> assertEquals(-1, set.indexOf(new Interval(2, false, 3, false))),
+                () -> assertEquals(-1, set.indexOf(new Interval(2, true, 3, true))),
+                () -> assertEquals(-1, set.indexOf(new Interval(1, true, 2, true)))
+        );
+    }
+    
+    @Test
+    void inclusivityPastOneWord() {
+        // More than 64 bounds, so the inclusive flags take more than one long
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            intervals.add(new Interval(2*i, i % 3 == 0, 2*i + 1, i % 5 == 0));
+        }
+        IntervalSet set = IntervalSet.of(intervals);
+        for (int i = 0; i < 100; i++) {
+            assertEquals(intervals.get(i), set.getInterval(i));
+        }
+    }
+    
+    @Test
+    void containsEdges() throws Interval.EqualBoundsException {
+        IntervalSet set = IntervalSet.of(
+                new Interval(Interval.Bound.NEG_INFINITY, new Interval.Bound(-4, true)),
+                new Interval(-1, true, 3, false),
+                new Interval(new Interval.Bound(5, false), Interval.Bound.INFINITY));
+        assertAll(
+                () -> assertTrue(set.contains(-1e300)),
+                () -> assertTrue(set.contains(-4)),
+                () -> assertFalse(set.contains(-3.5)),
+                () -> assertTrue(set.contains(-1)),
+                () -> assertFalse(set.contains(3)),
+                () -> assertFalse(set.contains(5)),
+                () -> assertTrue(set.contains(5.0001)),
+                () -> assertFalse(set.contains(Double.NaN)),
+                () -> assertFalse(IntervalSet.EMPTY.contains(0))
+        );
+    }
+    
+    @Test
+    void containsMatchesIntervalContains() {
+        Random random = new Random(11);
+        for (int trial = 0; trial < 200; trial++) {
+            List<Interval> intervals = randomIntervals(random);
+            IntervalSet set = IntervalSet.of(intervals);
+            
+            // Sorted points with lots of exact hits on the bounds, then the same points shuffled
+            double[] sorted = new double[500];
+            for (int i = 0; i < sorted.length; i++) {
+                sorted[i] = random.nextInt(4) == 0 ? random.nextInt(41) - 20 : random.nextDouble() * 44 - 22;
+            }
+            Arrays.sort(sorted);
+            double[] shuffled = sorted.clone();
+            for (int i = shuffled.length - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                double temp = shuffled[i];
+                shuffled[i] = shuffled[j];
+                shuffled[j] = temp;
+            }
+            
+            for (double[] points : new double[][] {sorted, shuffled}) {
+                boolean[] batch = new boolean[points.length];
+                set.contains(points, batch);
+                BitSet bits = set.contains(points);
+                for (int i = 0; i < points.length; i++) {
+                    double point = points[i];
+                    boolean expected = intervals.stream().anyMatch(interval -> interval.contains(point));
+                    assertEquals(expected, set.contains(point), "Point " + point + " in " + set);
+                    assertEquals(expected, batch[i], "Point " + point + " in " + set);
+                    assertEquals(expected, bits.get(i), "Point " + point + " in " + set);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void containsBatchSkipsNaN() throws Interval.EqualBoundsException {
+        IntervalSet set = IntervalSet.of(new Interval(0, false, 1, false), new Interval(5, false, 6, false));
+        double[] numbers = {5.5, Double.NaN, 0.5, Double.NaN, Double.NaN, 5.5, 3};
+        boolean[] out = new boolean[numbers.length];
+        Arrays.fill(out, true);
+        set.contains(numbers, out);
+        assertEquals(Arrays.toString(new boolean[] {true, false, true, false, false, true, false}),
+                Arrays.toString(out));
+    }
+    
+    // Random small intervals between -20 and 20, sometimes unbounded, with whole number bounds so they often touch
+    private static List<Interval> randomIntervals(Random random) {
+        List<Interval> intervals = new ArrayList<>();
+        int numIntervals = random.nextInt(8);
+        for (int i = 0; i < numIntervals; i++) {
+            int lower = random.nextInt(40) - 20;
+            int upper = lower + random.nextInt(5) + 1;
+            Interval.Bound lowerBound = random.nextInt(10) == 0 ? Interval.Bound.NEG_INFINITY
+                    : new Interval.Bound(lower, random.nextBoolean());
+            Interval.Bound upperBound = random.nextInt(10) == 0 ? Interval.Bound.INFINITY
+                    : new Interval.Bound(upper, random.nextBoolean());
+            intervals.add(new Interval(lowerBound, upperBound));
+        }
+        return intervals;
+    }
+    
+    @Test
+    void equalsHashCodeAndToStringMatchIntervals() throws Interval.EqualBoundsException {
+        Interval[] intervals = {
+                new Interval(Interval.Bound.NEG_INFINITY, new Interval.Bound(-4.5, false)),
+                new Interval(-1, false, 2, true),
+                new Interval(new Interval.Bound(20, true), Interval.Bound.INFINITY)
+        };
+        IntervalSet set1 = IntervalSet.of(intervals);
+        IntervalSet set2 = IntervalSet.of(intervals[2], intervals[0], intervals[1]);
+        IntervalSet set3 = IntervalSet.of(intervals[0], intervals[1]);
+        assertAll(
+                () -> assertEquals(set1, set2),
+                () -> assertEquals(set1.hashCode(), set2.hashCode()),
+                () -> assertNotEquals(set1, set3),
+                () -> assertNotEquals(IntervalSet.of(new Interval(0, true, 1, true)),
+                        IntervalSet.of(new Interval(0, true, 1, false))),
+                () -> assertEquals("(-Infinity, -4.5) or (-1.0, 2.0] or [20.0, Infinity)", set1.toString()),
+                () -> assertEquals(new DomainRange(intervals), new DomainRange(set2)),
+                () -> assertEquals(new DomainRange(intervals).toString(), set1.toString())
+        );
+    }
+    
+    @Test
+    void fingerprintsMatchEquality() {
+        Random random = new Random(9);
+        List<IntervalSet> sets = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            List<Interval> intervals = randomIntervals(random);
+            IntervalSet set = IntervalSet.of(intervals);
+            
+            // The same set made a different way has the same fingerprint
+            Collections.shuffle(intervals, random);
+            IntervalSet same = IntervalSet.of(intervals.subList(0, intervals.size() / 2))
+                    .union(IntervalSet.of(intervals.subList(intervals.size() / 2, intervals.size())));
+            assertEquals(set, same);
+            assertEquals(set.getFingerprint(), same.getFingerprint(), set.toString());
+            assertEquals(set.hashCode(), same.hashCode(), set.toString());
+            sets.add(set);
+        }
+        
+        // Unequal sets are told apart by their fingerprints (no collisions expected with this few)
+        for (IntervalSet set1 : sets) {
+            for (IntervalSet set2 : sets) {
+                assertEquals(set1.equals(set2), set1.getFingerprint() == set2.getFingerprint(), set1 + " vs " + set2);
+            }
+        }
+    }
+    
+    @Test
+    void footprintPerClause() {
+        // Many-clause domains like the ones that get kept around for analysis
+        int clauses = 1000;
+        Random random = new Random(3);
+        List<Interval> intervals = new ArrayList<>();
+        for (int i = 0; i < clauses; i++) {
+            intervals.add(new Interval(10*i, random.nextBoolean(), 10*i + 5, random.nextBoolean()));
+        }
+        
+        // Before: a HashSet of Intervals, each holding two Bounds
+        long before = GraphLayout.parseInstance(new HashSet<>(intervals)).totalSize();
+        long after = GraphLayout.parseInstance(IntervalSet.of(intervals)).totalSize();
+        
+        // 2 doubles plus 2 bits, plus a little overhead
+        assertTrue(after < 17.0 * clauses, "IntervalSet uses " + after + " bytes");
+        assertTrue(after * 4 < before, "IntervalSet uses " + after + " bytes, HashSet<Interval> " + before);
+    }
+    
+}
\ No newline at end of file
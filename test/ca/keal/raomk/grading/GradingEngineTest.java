@@ -0,0 +1,114 @@
+package ca.keal.raomk.grading;
+
+import ca.keal.raomk.dr.DomainRange;
+import ca.keal.raomk.level.Level;
+import ca.keal.raomk.ranch.Ranch;
+import org.junit.jupiter.api.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GradingEngineTest {
+    
+    // Level 0 needs both, level 1 only a domain
+    private static final AnswerKey ANSWERS = AnswerKey.of(
+            level(DomainRange.parseStatic("x > 1", 'x'), DomainRange.parseStatic("-2 < y <= 3", 'y')),
+            level(DomainRange.parseStatic("x < 0 or x > 5", 'x'), null)
+    );
+    
+    @Test
+    void verdicts() {
+        GradingEngine engine = new GradingEngine(ANSWERS, 1);
+        assertAll(
+                () -> assertEquals(Verdict.CORRECT, engine.grade(1, "0\tx > 1\t-2 < y <= 3").getVerdict()),
+                () -> assertEquals(Verdict.CORRECT, engine.grade(1, "0\t1 < x\t3 >= y > -2").getVerdict()),
+                () -> assertEquals(Verdict.CORRECT, engine.grade(1, "1\tx > 5 or x < 0\t").getVerdict()),
+                () -> assertEquals(Verdict.CORRECT, engine.grade(1, "1\tx > 5 or x < 0\t  ").getVerdict()),
+                () -> assertEquals(Verdict.WRONG_DOMAIN, engine.grade(1, "0\tx >= 1\t-2 < y <= 3").getVerdict()),
+                () -> assertEquals(Verdict.WRONG_RANGE, engine.grade(1, "0\tx > 1\t").getVerdict()),
+                () -> assertEquals(Verdict.WRONG_RANGE, engine.grade(1, "1\tx > 5 or x < 0\ty > 0").getVerdict()),
+                () -> assertEquals(Verdict.WRONG_DOMAIN_AND_RANGE, engine.grade(1, "0\t\t").getVerdict()),
+                () -> assertEquals(Verdict.INVALID_DOMAIN, engine.grade(1, "0\tx >\ty >").getVerdict()),
+                () -> assertEquals(Verdict.INVALID_RANGE, engine.grade(1, "0\tx > 1\tx > 1").getVerdict()),
+                () -> assertEquals(Verdict.UNKNOWN_LEVEL, engine.grade(1, "2\tx > 1\t").getVerdict()),
+                () -> assertEquals(Verdict.MALFORMED, engine.grade(1, "0\tx > 1").getVerdict()),
+                () -> assertEquals(Verdict.MALFORMED, engine.grade(1, "zero\tx > 1\t").getVerdict())
+        );
+        
+        Grade invalid = engine.grade(7, "0\tx > 1 or\t");
+        assertEquals("7\t0\tINVALID_DOMAIN\tInterval has wrong number of parts", invalid.toString());
+    }
+    
+    @Test
+    void gradesFileInOrder() throws IOException {
+        String[] lines = {
+                "0\tx > 1\t-2 < y <= 3", "0\tx > 2\t-2 < y <= 3", "1\tx <\t", "5\t\t", "nonsense", "1\tx > 5 or x < 0\t"
+        };
+        StringBuilder submissions = new StringBuilder();
+        Random random = new Random(10);
+        int records = 0;
+        for (int i = 0; i < 20000; i++) {
+            if (random.nextInt(50) == 0) {
+                submissions.append('\n'); // blank lines are skipped
+            } else {
+                submissions.append(lines[random.nextInt(lines.length)]).append('\n');
+                records++;
+            }
+        }
+        
+        String oneThread = grade(submissions.toString(), 1, records);
+        String fourThreads = grade(submissions.toString(), 4, records);
+        assertEquals(oneThread, fourThreads);
+        
+        // Every grade is for the right line
+        String[] submitted = submissions.toString().split("\n", -1);
+        GradingEngine engine = new GradingEngine(ANSWERS, 1);
+        for (String grade : oneThread.split("\n")) {
+            int line = Integer.parseInt(grade.substring(0, grade.indexOf('\t')));
+            assertEquals(engine.grade(line, submitted[line - 1]).toString(), grade);
+        }
+    }
+    
+    private static String grade(String submissions, int threads, int records) throws IOException {
+        StringWriter out = new StringWriter();
+        GradingStats stats = new GradingEngine(ANSWERS, threads)
+                .grade(new BufferedReader(new StringReader(submissions)), out);
+        assertEquals(records, stats.getRecords());
+        assertEquals(records, stats.getLatencies().getCount());
+        assertEquals(records, stats.getCounts().values().stream().mapToLong(Long::longValue).sum());
+        assertTrue(stats.getCount(Verdict.CORRECT) > 0);
+        return out.toString();
+    }
+    
+    @Test
+    void latencyPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long nanos = 1; nanos <= 100000; nanos++) {
+            histogram.record(nanos);
+        }
+        assertEquals(100000, histogram.getCount());
+        assertEquals(100000, histogram.getMax());
+        for (double percentile : new double[] {1, 50, 90, 99, 99.9}) {
+            double exact = percentile * 1000;
+            long approximate = histogram.getPercentile(percentile);
+            assertTrue(approximate >= exact && approximate <= exact * 17 / 16, percentile + ": " + approximate);
+        }
+        assertEquals(100000, histogram.getPercentile(100));
+        assertEquals(0, new LatencyHistogram().getPercentile(50));
+    }
+    
+    private static Level level(DomainRange domain, DomainRange range) {
+        return new Level(domain, range) {
+            @Override
+            public void init(Ranch ranch) {}
+        };
+    }
+    
+}
\ No newline at end of file
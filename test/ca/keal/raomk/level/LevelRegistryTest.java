@@ -0,0 +1,76 @@
+package ca.keal.raomk.level;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LevelRegistryTest {
+    
+    private static LevelRegistry registry(Executor warmer, String... classNames) {
+        return new LevelRegistry(Arrays.asList(classNames), LevelRegistryTest.class.getClassLoader(), warmer);
+    }
+    
+    @Test
+    void indexListsTheLevelsInOrder() {
+        List<String> classNames = LevelRegistry.readIndex(LevelRegistryTest.class.getClassLoader());
+        assertEquals(10, classNames.size());
+        for (int i = 0; i < classNames.size(); i++) {
+            assertEquals("ca.keal.raomk.level.Level" + i, classNames.get(i));
+        }
+    }
+    
+    @Test
+    void levelsAreOnlyMadeWhenNeeded() {
+        LevelRegistry levels = registry(Runnable::run, Level0.class.getName(), Level1.class.getName(),
+                Level2.class.getName());
+        assertEquals(3, levels.size());
+        assertFalse(levels.isStarted(0));
+        
+        Level first = levels.get(0);
+        assertTrue(first instanceof Level0);
+        assertSame(first, levels.get(0));
+        assertAll(
+                () -> assertTrue(levels.isStarted(0)),
+                () -> assertFalse(levels.isStarted(1)),
+                () -> assertFalse(levels.isStarted(2))
+        );
+    }
+    
+    @Test
+    void warmingMakesTheLevelInTheBackground() {
+        List<Runnable> tasks = new ArrayList<>();
+        LevelRegistry levels = registry(tasks::add, Level0.class.getName(), Level1.class.getName());
+        
+        levels.warm(1);
+        levels.warm(1); // already warming
+        levels.warm(2); // no such level
+        assertEquals(1, tasks.size());
+        assertTrue(levels.isStarted(1));
+        
+        tasks.get(0).run();
+        assertTrue(levels.get(1) instanceof Level1);
+        
+        levels.get(0);
+        levels.warm(0); // already made
+        assertEquals(1, tasks.size());
+    }
+    
+    @Test
+    void badLevelsFailWhenTheyreNeeded() {
+        LevelRegistry levels = registry(Runnable::run, Level0.class.getName(), "ca.keal.raomk.level.NoSuchLevel");
+        assertTrue(levels.get(0) instanceof Level0);
+        assertThrows(IllegalStateException.class, () -> levels.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> levels.get(2));
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,74 @@
+package ca.keal.raomk.ranch;
+
+import ca.keal.raomk.dr.DomainRange;
+import ca.keal.raomk.dr.Interval;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiffTest {
+    
+    @Test
+    void addedAndRemoved() {
+        Diff<String> diff = Diff.of(Arrays.asList("a", "b", "c"), Arrays.asList("c", "d", "a"));
+        assertAll(
+                () -> assertEquals(Collections.singletonList("d"), diff.getAdded()),
+                () -> assertEquals(Collections.singletonList("b"), diff.getRemoved())
+        );
+    }
+    
+    @Test
+    void duplicatesAreCounted() {
+        Diff<String> diff = Diff.of(Arrays.asList("a", "a", "b"), Arrays.asList("a", "b", "b", "b"));
+        assertAll(
+                () -> assertEquals(Arrays.asList("b", "b"), diff.getAdded()),
+                () -> assertEquals(Collections.singletonList("a"), diff.getRemoved())
+        );
+    }
+    
+    @Test
+    void sameItemsInAnotherOrderIsNoChange() {
+        assertTrue(Diff.of(Arrays.asList(1, 2, 3, 3), Arrays.asList(3, 1, 3, 2)).isEmpty());
+        assertTrue(Diff.of(Collections.emptyList(), Collections.emptyList()).isEmpty());
+    }
+    
+    @Test
+    void editingOneClauseChangesOneFence() throws Exception {
+        // 100 clauses: 0 < x < 1 or 2 < x < 3 or ... or 198 < x < 199
+        StringBuilder domain = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            if (i > 0) domain.append(" or ");
+            domain.append(2 * i).append(" < x < ").append(2 * i + 1);
+        }
+        List<Fence> before = fences(domain.toString());
+        
+        // Change the upper bound of one clause in the middle
+        List<Fence> after = fences(domain.toString().replace(" 100 < x < 101 ", " 100 < x <= 101.5 "));
+        
+        assertEquals(200, before.size());
+        assertEquals(200, after.size());
+        Diff<Fence> diff = Diff.of(before, after);
+        assertAll(
+                () -> assertEquals(Collections.singletonList(new Fence(Fence.Orientation.VERTICAL, 101, true, false)),
+                        diff.getRemoved()),
+                () -> assertEquals(Collections.singletonList(new Fence(Fence.Orientation.VERTICAL, 101.5, true, true)),
+                        diff.getAdded())
+        );
+    }
+    
+    private static List<Fence> fences(String domain) throws Exception {
+        List<Fence> fences = new ArrayList<>();
+        for (Interval interval : DomainRange.parse(domain, 'x').getIntervals()) {
+            fences.addAll(Fence.intervalToFences(interval, Fence.Orientation.VERTICAL));
+        }
+        return fences;
+    }
+    
+}
\ No newline at end of file
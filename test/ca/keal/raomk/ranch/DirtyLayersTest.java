@@ -0,0 +1,128 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DirtyLayersTest {
+    
+    @Test
+    void everythingStartsDirty() {
+        List<Layer> painted = new ArrayList<>();
+        DirtyLayers layers = new DirtyLayers(painted::add, () -> {});
+        assertEquals(4, layers.repaint());
+        assertEquals(Arrays.asList(Layer.values()), painted);
+        assertEquals(0, layers.getRepaintsAvoided());
+    }
+    
+    @Test
+    void onlyDirtyLayersArePainted() {
+        List<Layer> painted = new ArrayList<>();
+        DirtyLayers layers = new DirtyLayers(painted::add, () -> {});
+        layers.repaint();
+        
+        // e.g. panning, then Gumdrop Joe talking
+        painted.clear();
+        layers.mark(Layer.BACKGROUND, Layer.COWS, Layer.FENCES);
+        layers.repaint();
+        assertEquals(Arrays.asList(Layer.BACKGROUND, Layer.COWS, Layer.FENCES), painted);
+        
+        painted.clear();
+        layers.mark(Layer.GUMDROP_JOE);
+        assertTrue(layers.isDirty(Layer.GUMDROP_JOE));
+        layers.repaint();
+        assertEquals(Arrays.asList(Layer.GUMDROP_JOE), painted);
+        assertFalse(layers.isDirty(Layer.GUMDROP_JOE));
+        
+        assertAll(
+                () -> assertEquals(8, layers.getRepaints()),
+                () -> assertEquals(4, layers.getRepaintsAvoided()),
+                () -> assertEquals(2, layers.getRepaints(Layer.GUMDROP_JOE)),
+                () -> assertEquals(1, layers.getRepaintsAvoided(Layer.GUMDROP_JOE)),
+                () -> assertEquals(1, layers.getRepaintsAvoided(Layer.COWS))
+        );
+    }
+    
+    @Test
+    void marksBetweenRepaintsAreCombined() {
+        List<Layer> painted = new ArrayList<>();
+        DirtyLayers layers = new DirtyLayers(painted::add, () -> {});
+        layers.repaint();
+        painted.clear();
+        
+        layers.mark(Layer.COWS);
+        layers.mark(Layer.COWS, Layer.FENCES);
+        layers.mark(Layer.COWS);
+        assertEquals(2, layers.repaint());
+        assertEquals(Arrays.asList(Layer.COWS, Layer.FENCES), painted);
+        
+        // Nothing changed since
+        assertEquals(0, layers.repaint());
+        assertEquals(2, painted.size());
+    }
+    
+    @Test
+    void nothingDirtyIsNotAnAvoidedRepaint() {
+        DirtyLayers layers = new DirtyLayers(layer -> {}, () -> {});
+        layers.repaint();
+        
+        // e.g. a frame that only drew some fences that changed
+        assertEquals(0, layers.repaint());
+        assertEquals(0, layers.getRepaintsAvoided());
+    }
+    
+    @Test
+    void batchAsksForOneRepaintAtTheEnd() {
+        List<Layer> painted = new ArrayList<>();
+        int[] requests = {0};
+        DirtyLayers layers = new DirtyLayers(painted::add, () -> requests[0]++);
+        layers.repaint();
+        painted.clear();
+        
+        // Like a level adding its cows one at a time, each one marking and repainting
+        layers.batch(() -> {
+            for (int i = 0; i < 1001; i++) {
+                layers.mark(Layer.COWS);
+                assertEquals(0, layers.repaint());
+            }
+            layers.batch(() -> layers.mark(Layer.GUMDROP_JOE)); // nested batches wait for the outer one
+            assertEquals(0, requests[0]);
+        });
+        assertEquals(1, requests[0]);
+        assertTrue(painted.isEmpty()); // not until the frame it asked for
+        
+        assertEquals(2, layers.repaint());
+        assertEquals(Arrays.asList(Layer.COWS, Layer.GUMDROP_JOE), painted);
+        assertEquals(2, layers.getRepaints(Layer.COWS));
+        
+        // Nothing changed, so nothing to ask for
+        layers.batch(() -> {});
+        assertEquals(1, requests[0]);
+    }
+    
+    @Test
+    void batchAsksForRepaintEvenIfItThrows() {
+        int[] requests = {0};
+        DirtyLayers layers = new DirtyLayers(layer -> {}, () -> requests[0]++);
+        layers.repaint();
+        
+        assertThrows(IllegalStateException.class, () -> layers.batch(() -> {
+            layers.mark(Layer.FENCES);
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, requests[0]);
+        
+        // No longer in a batch
+        layers.mark(Layer.COWS);
+        assertEquals(2, layers.repaint());
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FenceStripTest {
+    
+    private static final double DELTA = 1e-9;
+    
+    @Test
+    void horizontalUpperBoundHasArrowsBelow() {
+        // 20x10 segments on top of the line, 6x10 arrows 2.5 below it
+        FenceStrip.Layout layout = FenceStrip.Layout.of(true, true, 20, 10, 6, 10);
+        assertAll(
+                () -> assertEquals(20, layout.getPeriod(), DELTA),
+                () -> assertEquals(-10, layout.getAcrossStart(), DELTA),
+                () -> assertEquals(22.5, layout.getAcrossSize(), DELTA),
+                () -> assertEquals(0, layout.getSegmentAcross(), DELTA),
+                () -> assertEquals(12.5, layout.getArrowAcross(), DELTA),
+                () -> assertEquals(7, layout.getArrowAlong(), DELTA)
+        );
+    }
+    
+    @Test
+    void horizontalLowerBoundHasArrowsAbove() {
+        FenceStrip.Layout layout = FenceStrip.Layout.of(true, false, 20, 10, 6, 10);
+        assertAll(
+                () -> assertEquals(-22.5, layout.getAcrossStart(), DELTA),
+                () -> assertEquals(22.5, layout.getAcrossSize(), DELTA),
+                () -> assertEquals(12.5, layout.getSegmentAcross(), DELTA),
+                () -> assertEquals(0, layout.getArrowAcross(), DELTA)
+        );
+    }
+    
+    @Test
+    void verticalIsCenteredOnLine() {
+        // 8x30 segments centered on the line, 10x4 arrows to the left of them
+        FenceStrip.Layout layout = FenceStrip.Layout.of(false, true, 8, 30, 10, 4);
+        assertAll(
+                () -> assertEquals(30, layout.getPeriod(), DELTA),
+                () -> assertEquals(-16.5, layout.getAcrossStart(), DELTA),
+                () -> assertEquals(20.5, layout.getAcrossSize(), DELTA),
+                () -> assertEquals(12.5, layout.getSegmentAcross(), DELTA),
+                () -> assertEquals(0, layout.getArrowAcross(), DELTA),
+                () -> assertEquals(13, layout.getArrowAlong(), DELTA)
+        );
+        
+        FenceStrip.Layout lower = FenceStrip.Layout.of(false, false, 8, 30, 10, 4);
+        assertEquals(-4, lower.getAcrossStart(), DELTA);
+        assertEquals(10.5, lower.getArrowAcross(), DELTA);
+    }
+    
+    @Test
+    void arrowsWiderThanSegmentsStickOut() {
+        FenceStrip.Layout layout = FenceStrip.Layout.of(true, true, 4, 3, 10, 10);
+        assertEquals(-3, layout.getArrowAlong(), DELTA);
+        assertEquals(10, layout.getArrowAlongSize(), DELTA);
+    }
+    
+}
\ No newline at end of file
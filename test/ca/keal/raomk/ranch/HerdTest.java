@@ -0,0 +1,120 @@
+package ca.keal.raomk.ranch;
+
+import javafx.scene.image.Image;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HerdTest {
+    
+    // Images aren't needed unless the herd is drawn
+    private static Herd herdWithPalette(int size) {
+        return new Herd(Collections.nCopies(size, (Image) null));
+    }
+    
+    @Test
+    void addKeepsEveryCow() {
+        Herd herd = herdWithPalette(4);
+        for (int i = 0; i < 100000; i++) {
+            herd.add(i * 0.5, -i, i % 4);
+        }
+        assertEquals(100000, herd.size());
+        for (int i = 0; i < 100000; i += 997) {
+            assertEquals(i * 0.5, herd.getX(i));
+            assertEquals(-i, herd.getY(i));
+            assertEquals(i % 4, herd.getSprite(i));
+        }
+    }
+    
+    @Test
+    void growthIsAmortized() {
+        Herd herd = herdWithPalette(1);
+        int growths = 0;
+        int capacity = herd.capacity();
+        for (int i = 0; i < 1000000; i++) {
+            herd.add(0, 0, 0);
+            if (herd.capacity() != capacity) {
+                growths++;
+                assertTrue(herd.capacity() >= capacity * 3 / 2);
+                capacity = herd.capacity();
+            }
+        }
+        assertTrue(growths < 40, "" + growths);
+    }
+    
+    @Test
+    void ensureCapacityMeansNoGrowing() {
+        Herd herd = herdWithPalette(1);
+        herd.ensureCapacity(5000);
+        int capacity = herd.capacity();
+        assertTrue(capacity >= 5000);
+        for (int i = 0; i < 5000; i++) {
+            herd.add(i, i, 0);
+        }
+        assertEquals(capacity, herd.capacity());
+    }
+    
+    @Test
+    void clearKeepsArrays() {
+        Herd herd = herdWithPalette(1);
+        for (int i = 0; i < 1000; i++) {
+            herd.add(i, i, 0);
+        }
+        int capacity = herd.capacity();
+        herd.clear();
+        assertEquals(0, herd.size());
+        assertEquals(capacity, herd.capacity());
+        assertThrows(IndexOutOfBoundsException.class, () -> herd.getX(0));
+        
+        herd.add(7, 8, 0);
+        assertEquals(7, herd.getX(0));
+    }
+    
+    @Test
+    void spriteIndicesUpTo255() {
+        Herd herd = herdWithPalette(256);
+        herd.add(0, 0, 200);
+        herd.add(0, 0, 255);
+        assertAll(
+                () -> assertEquals(200, herd.getSprite(0)),
+                () -> assertEquals(255, herd.getSprite(1)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> herd.add(0, 0, 256)),
+                () -> assertThrows(IndexOutOfBoundsException.class, () -> herd.add(0, 0, -1)),
+                () -> assertEquals(2, herd.size())
+        );
+    }
+    
+    @Test
+    void countInCellsCountsEachCowOnce() {
+        Herd herd = herdWithPalette(1);
+        herd.add(0, 0, 0);
+        herd.add(0.1, -0.1, 0);
+        herd.add(1, 1, 0);
+        herd.add(-1, -1, 0);
+        herd.add(100, 0, 0); // off the grid
+        
+        // 10 pixels between grid lines, 10 pixel cells, origin at the top-left corner of cell (1, 1) of a 3x3 grid
+        int[] counts = herd.countInCells(10, 10, 10, 3, 3, 10);
+        assertArrayEquals(new int[] {
+                0, 0, 1,
+                0, 2, 0,
+                1, 0, 0
+        }, counts);
+    }
+    
+    @Test
+    void zoomedOutHerdsAreDrawnAsDensity() {
+        RanchView view = new RanchView(30, 0, 0);
+        assertFalse(Herd.drawsDensity(view));
+        view.zoom(0.1, 0, 0);
+        assertTrue(Herd.drawsDensity(view));
+    }
+    
+}
\ No newline at end of file
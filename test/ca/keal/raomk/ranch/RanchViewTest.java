@@ -0,0 +1,74 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class RanchViewTest {
+    
+    private static final double DELTA = 1e-9;
+    
+    @Test
+    void zoomKeepsPivotInPlace() {
+        RanchView view = new RanchView(30, 400, 300);
+        view.shift(-50, 20);
+        Position underPivot = Position.fromCanvasCoords(view, 123, 456);
+        
+        view.zoom(2.5, 123, 456);
+        assertEquals(75, view.getGridLineGap(), DELTA);
+        assertEquals(2.5, view.getScale(), DELTA);
+        assertAll(
+                () -> assertEquals(123, underPivot.getCanvasX(view), DELTA),
+                () -> assertEquals(456, underPivot.getCanvasY(view), DELTA)
+        );
+        
+        view.zoom(0.1, 123, 456);
+        assertEquals(0.25, view.getScale(), DELTA);
+        assertAll(
+                () -> assertEquals(123, underPivot.getCanvasX(view), DELTA),
+                () -> assertEquals(456, underPivot.getCanvasY(view), DELTA)
+        );
+    }
+    
+    @Test
+    void zoomStopsAtLimits() {
+        RanchView view = new RanchView(30, 0, 0);
+        view.zoom(1e6, 10, 10);
+        assertEquals(RanchView.MAX_GRID_LINE_GAP, view.getGridLineGap());
+        view.zoom(1e-6, 10, 10);
+        assertEquals(RanchView.MIN_GRID_LINE_GAP, view.getGridLineGap());
+        
+        // Zoomed all the way out, the pivot still stays put
+        Position underPivot = Position.fromCanvasCoords(view, 10, 10);
+        view.zoom(0.5, 10, 10);
+        assertEquals(10, underPivot.getCanvasX(view), DELTA);
+    }
+    
+    @Test
+    void withOriginKeepsZoom() {
+        RanchView view = new RanchView(30, 0, 0);
+        view.zoom(0.5, 0, 0);
+        RanchView moved = view.withOrigin(100, 200);
+        assertAll(
+                () -> assertEquals(100, moved.getOriginX()),
+                () -> assertEquals(200, moved.getOriginY()),
+                () -> assertEquals(15, moved.getGridLineGap()),
+                () -> assertEquals(0.5, moved.getScale())
+        );
+    }
+    
+    @Test
+    void gridStepIsOneTwoOrFiveTimesAPowerOfTen() {
+        assertAll(
+                () -> assertEquals(1, RanchView.gridStep(30, 6)),
+                () -> assertEquals(1, RanchView.gridStep(30, 30)),
+                () -> assertEquals(2, RanchView.gridStep(29, 30)),
+                () -> assertEquals(5, RanchView.gridStep(10, 30)),
+                () -> assertEquals(10, RanchView.gridStep(5, 30)),
+                () -> assertEquals(50, RanchView.gridStep(0.5, 25)),
+                () -> assertEquals(100, RanchView.gridStep(0.5, 30))
+        );
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RenderSchedulerTest {
+    
+    @Test
+    void eventsInOnePulseAreOneFrame() {
+        List<double[]> frames = new ArrayList<>();
+        int[] pulsesRequested = {0};
+        RenderScheduler scheduler = new RenderScheduler((shiftX, shiftY) -> frames.add(new double[] {shiftX, shiftY}),
+                () -> pulsesRequested[0]++);
+        
+        // A fast drag: lots of mouse events before the next pulse
+        for (int i = 0; i < 50; i++) {
+            scheduler.pan(2, -1);
+        }
+        scheduler.request();
+        assertEquals(1, pulsesRequested[0]);
+        assertTrue(frames.isEmpty());
+        
+        scheduler.frame();
+        assertAll(
+                () -> assertEquals(1, frames.size()),
+                () -> assertEquals(100, frames.get(0)[0]),
+                () -> assertEquals(-50, frames.get(0)[1]),
+                () -> assertEquals(1, scheduler.getFramesRendered()),
+                () -> assertEquals(50, scheduler.getEventsCoalesced())
+        );
+    }
+    
+    @Test
+    void nothingToRenderIsNoFrame() {
+        int[] rendered = {0};
+        RenderScheduler scheduler = new RenderScheduler((shiftX, shiftY) -> rendered[0]++, () -> {});
+        scheduler.frame();
+        assertEquals(0, rendered[0]);
+        
+        scheduler.request();
+        scheduler.frame();
+        scheduler.frame();
+        assertEquals(1, rendered[0]);
+        assertEquals(1, scheduler.getFramesRendered());
+    }
+    
+    @Test
+    void pansAreOnlyAppliedOnce() {
+        List<double[]> frames = new ArrayList<>();
+        RenderScheduler scheduler = new RenderScheduler((shiftX, shiftY) -> frames.add(new double[] {shiftX, shiftY}),
+                () -> {});
+        scheduler.pan(5, 5);
+        scheduler.frame();
+        scheduler.request(); // e.g. a cow was added
+        scheduler.frame();
+        
+        assertEquals(2, frames.size());
+        assertEquals(5, frames.get(0)[0]);
+        assertEquals(0, frames.get(1)[0]);
+        assertEquals(0, frames.get(1)[1]);
+    }
+    
+    @Test
+    void frameCanAskForAnotherFrame() {
+        int[] pulsesRequested = {0};
+        RenderScheduler[] scheduler = new RenderScheduler[1];
+        scheduler[0] = new RenderScheduler((shiftX, shiftY) -> {
+            if (scheduler[0].getFramesRendered() == 0) scheduler[0].request();
+        }, () -> pulsesRequested[0]++);
+        
+        scheduler[0].request();
+        scheduler[0].frame();
+        assertEquals(2, pulsesRequested[0]); // not lost as coalesced into the frame being rendered
+        scheduler[0].frame();
+        assertEquals(2, scheduler[0].getFramesRendered());
+        assertTrue(scheduler[0].getMaxFrameNanos() >= 0);
+    }
+    
+}
\ No newline at end of file
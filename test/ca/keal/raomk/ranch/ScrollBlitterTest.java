@@ -0,0 +1,67 @@
+package ca.keal.raomk.ranch;
+
+import javafx.geometry.Rectangle2D;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ScrollBlitterTest {
+    
+    @Test
+    void exposedStrips() {
+        // Dragged right and down: the left and top edges are uncovered
+        assertEquals(Arrays.asList(new Rectangle2D(0, 0, 5, 100), new Rectangle2D(5, 0, 195, 3)),
+                ScrollBlitter.exposedStrips(200, 100, 5, 3));
+        
+        // Dragged left and up: the right and bottom edges
+        assertEquals(Arrays.asList(new Rectangle2D(190, 0, 10, 100), new Rectangle2D(0, 98, 190, 2)),
+                ScrollBlitter.exposedStrips(200, 100, -10, -2));
+        
+        assertEquals(Collections.singletonList(new Rectangle2D(0, 0, 200, 7)),
+                ScrollBlitter.exposedStrips(200, 100, 0, 7));
+        assertEquals(Collections.emptyList(), ScrollBlitter.exposedStrips(200, 100, 0, 0));
+    }
+    
+    @Test
+    void stripsAndCopyCoverCanvasOnce() {
+        double width = 64;
+        double height = 48;
+        for (int shiftX = -70; shiftX <= 70; shiftX += 7) {
+            for (int shiftY = -50; shiftY <= 50; shiftY += 5) {
+                List<Rectangle2D> strips = ScrollBlitter.exposedStrips(width, height, shiftX, shiftY);
+                for (int x = 0; x < width; x++) {
+                    for (int y = 0; y < height; y++) {
+                        int covered = 0;
+                        for (Rectangle2D strip : strips) {
+                            if (strip.contains(x + 0.5, y + 0.5)) covered++;
+                        }
+                        
+                        // Where the pixel was before the pan
+                        boolean copied = x - shiftX >= 0 && x - shiftX < width
+                                && y - shiftY >= 0 && y - shiftY < height;
+                        if (!copied) covered++;
+                        assertEquals(copied ? 0 : 2, covered, x + ", " + y + " for " + shiftX + ", " + shiftY);
+                    }
+                }
+            }
+        }
+    }
+    
+    @Test
+    void onlySmallWholePixelPansAreBlitted() {
+        assertTrue(ScrollBlitter.canBlit(800, 600, 4, -3));
+        assertTrue(ScrollBlitter.canBlit(800, 600, -100, 0));
+        assertFalse(ScrollBlitter.canBlit(800, 600, 0.5, 0));
+        assertFalse(ScrollBlitter.canBlit(800, 600, 500, 0));
+        assertFalse(ScrollBlitter.canBlit(800, 600, 0, -600));
+        assertFalse(ScrollBlitter.canBlit(800.5, 600, 1, 1));
+        assertFalse(ScrollBlitter.canBlit(0, 0, 1, 1));
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,88 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialGridTest {
+    
+    @Test
+    void findsEverythingInRectangle() {
+        Random random = new Random(12);
+        List<Position> positions = randomPositions(random, 5000, 500);
+        SpatialGrid<Position> grid = new SpatialGrid<>(positions, Function.identity(), 10);
+        assertEquals(5000, grid.size());
+        
+        for (int trial = 0; trial < 500; trial++) {
+            double left = random.nextDouble() * 1200 - 600;
+            double bottom = random.nextDouble() * 1200 - 600;
+            double right = left + random.nextDouble() * 60;
+            double top = bottom + random.nextDouble() * 60;
+            
+            Set<Position> found = new HashSet<>();
+            int visited = grid.forEachNear(left, bottom, right, top, found::add);
+            assertEquals(found.size(), visited);
+            
+            for (Position position : positions) {
+                boolean inside = position.getX() >= left && position.getX() <= right
+                        && position.getY() >= bottom && position.getY() <= top;
+                if (inside) {
+                    assertTrue(found.contains(position), position + " in " + left + ", " + bottom);
+                }
+                
+                // Anything found is at most a cell away
+                if (found.contains(position)) {
+                    assertTrue(position.getX() >= left - 10 && position.getX() <= right + 10
+                            && position.getY() >= bottom - 10 && position.getY() <= top + 10);
+                }
+            }
+        }
+    }
+    
+    @Test
+    void costDependsOnRectangleNotField() {
+        // Same density of things, 100 times the area
+        Random random = new Random(13);
+        SpatialGrid<Position> small = new SpatialGrid<>(randomPositions(random, 1000, 50), Function.identity(), 5);
+        SpatialGrid<Position> big = new SpatialGrid<>(randomPositions(random, 100000, 500), Function.identity(), 5);
+        
+        int smallVisited = small.forEachNear(-13, -10, 13, 10, position -> {});
+        int bigVisited = big.forEachNear(-13, -10, 13, 10, position -> {});
+        assertTrue(bigVisited < 2 * smallVisited, smallVisited + " vs " + bigVisited);
+        assertTrue(bigVisited < big.size() / 50);
+    }
+    
+    @Test
+    void edges() {
+        List<Position> positions = new ArrayList<>();
+        positions.add(new Position(0, 0));
+        positions.add(new Position(10, 10));
+        SpatialGrid<Position> grid = new SpatialGrid<>(positions, Function.identity(), 10);
+        
+        assertEquals(2, grid.forEachNear(-100, -100, 100, 100, position -> {}));
+        assertEquals(0, grid.forEachNear(20, 20, 30, 30, position -> {}));
+        assertEquals(0, grid.forEachNear(-30, -30, -20, -20, position -> {}));
+        assertEquals(0, grid.forEachNear(5, 5, 4, 4, position -> {}));
+        assertEquals(0, new SpatialGrid<>(Collections.<Position>emptyList(), Function.identity(), 1)
+                .forEachNear(-1, -1, 1, 1, position -> {}));
+    }
+    
+    private static List<Position> randomPositions(Random random, int count, double maxDist) {
+        List<Position> positions = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            positions.add(new Position(random.nextDouble() * 2 * maxDist - maxDist,
+                    random.nextDouble() * 2 * maxDist - maxDist));
+        }
+        return positions;
+    }
+    
+}
\ No newline at end of file
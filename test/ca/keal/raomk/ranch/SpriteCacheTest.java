@@ -0,0 +1,52 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SpriteCacheTest {
+    
+    @Test
+    void fitSize() {
+        // Longer side matches the box, like a 40x40 cow
+        assertArrayEquals(new double[] {40, 20}, SpriteCache.fitSize(200, 100, 40, 40));
+        assertArrayEquals(new double[] {20, 40}, SpriteCache.fitSize(100, 200, 40, 40));
+        assertArrayEquals(new double[] {30, 30}, SpriteCache.fitSize(64, 64, 33.33, 30));
+    }
+    
+    @Test
+    void downscaleAveragesPixels() {
+        int[] source = {
+                0xff000000, 0xff0000ff, 0xffff0000, 0xffff0000,
+                0xff0000ff, 0xff000000, 0xffff0000, 0xffff0000,
+        };
+        assertArrayEquals(new int[] {0xff000080, 0xffff0000}, SpriteCache.resample(source, 4, 2, 2, 1));
+    }
+    
+    @Test
+    void uniformColourStaysTheSame() {
+        int[] source = new int[97 * 61];
+        Arrays.fill(source, 0xff1e8200);
+        int[] target = SpriteCache.resample(source, 97, 61, 40, 25);
+        for (int pixel : target) {
+            assertEquals(0xff1e8200, pixel);
+        }
+        
+        // Scaling up too
+        for (int pixel : SpriteCache.resample(source, 97, 61, 150, 100)) {
+            assertEquals(0xff1e8200, pixel);
+        }
+    }
+    
+    @Test
+    void transparentPixelsDontDarkenEdges() {
+        // Half white, half fully transparent black: should be half-transparent white, not grey
+        int[] source = {0xffffffff, 0x00000000};
+        assertArrayEquals(new int[] {0x80ffffff}, SpriteCache.resample(source, 2, 1, 1, 1));
+        assertArrayEquals(new int[] {0}, SpriteCache.resample(new int[] {0, 0, 0, 0}, 2, 2, 1, 1));
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpriteSizesTest {
+    
+    private static int[] only(String path, double imageWidth, double imageHeight) {
+        List<int[]> sizes = SpriteSizes.of(path, imageWidth, imageHeight);
+        assertEquals(1, sizes.size(), path);
+        return sizes.get(0);
+    }
+    
+    @Test
+    void sizesAreWhatsDrawnUnzoomed() {
+        assertAll(
+                () -> assertArrayEquals(new int[] {40, 32}, only("cow/normal", 200, 160)),
+                () -> assertArrayEquals(new int[] {30, 40}, only("cow/spider", 160, 210)),
+                () -> assertArrayEquals(new int[] {33, 30}, only("flowers", 100, 90)),
+                () -> assertArrayEquals(new int[] {8, 10}, only("fence_arrow/up_inclusive", 130, 170)),
+                () -> assertArrayEquals(new int[] {10, 8}, only("fence_arrow/left_exclusive", 170, 130)),
+                () -> assertArrayEquals(new int[] {9, 26}, only("fence_vertical", 50, 140)),
+                () -> assertArrayEquals(new int[] {24, 17}, only("fence_horizontal", 130, 90)),
+                () -> assertArrayEquals(new int[] {171, 50}, only("play_again", 410, 120))
+        );
+    }
+    
+    @Test
+    void imagesDrawnBiggerArentScaled() {
+        assertTrue(SpriteSizes.of("gumdrop_joe", 120, 180).isEmpty());
+        assertTrue(SpriteSizes.of("win", 490, 540).isEmpty());
+    }
+    
+}
\ No newline at end of file
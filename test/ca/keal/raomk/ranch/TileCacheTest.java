@@ -0,0 +1,99 @@
+package ca.keal.raomk.ranch;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TileCacheTest {
+    
+    @Test
+    void tilesCoverCanvas() {
+        TileCache<String> cache = new TileCache<>(100, 100, (column, row) -> column + "," + row);
+        List<String> drawn = new ArrayList<>();
+        
+        // Origin in the middle of a 250x150 canvas: columns -2 to 1, rows -1 to 0
+        int count = cache.forEachVisible(125, 75, 250, 150, (tile, x, y) -> {
+            drawn.add(tile + "@" + x + "," + y);
+        });
+        assertEquals(8, count);
+        assertTrue(drawn.contains("-2,-1@-75.0,-25.0"), drawn.toString());
+        assertTrue(drawn.contains("1,0@225.0,75.0"), drawn.toString());
+        
+        // Lined up with the tiles, so no extra row or column
+        assertEquals(6, cache.forEachVisible(0, 0, 300, 200, (tile, x, y) -> {}));
+        assertEquals(4, cache.forEachVisible(-300, 200, 200, 200, (tile, x, y) -> {}));
+    }
+    
+    @Test
+    void canvasNoBiggerThanTileTouchesAtMostFour() {
+        TileCache<String> cache = new TileCache<>(512, 100, (column, row) -> "");
+        for (double origin = -1000; origin < 1000; origin += 7.3) {
+            int count = cache.forEachVisible(origin, -origin / 2, 512, 400, (tile, x, y) -> {});
+            assertTrue(count >= 1 && count <= 4, "" + count);
+        }
+    }
+    
+    @Test
+    void panningReusesTiles() {
+        TileCache<String> cache = new TileCache<>(100, 20, (column, row) -> column + "," + row);
+        cache.forEachVisible(0, 0, 200, 200, (tile, x, y) -> {});
+        assertEquals(4, cache.getRenders());
+        
+        // Small pans back and forth only render the tiles newly on screen
+        cache.forEachVisible(-50, 0, 200, 200, (tile, x, y) -> {});
+        cache.forEachVisible(0, 0, 200, 200, (tile, x, y) -> {});
+        cache.forEachVisible(-50, 0, 200, 200, (tile, x, y) -> {});
+        assertAll(
+                () -> assertEquals(6, cache.getRenders()),
+                () -> assertEquals(14, cache.getHits()),
+                () -> assertEquals(6, cache.size())
+        );
+    }
+    
+    @Test
+    void leastRecentlyUsedIsEvicted() {
+        TileCache<String> cache = new TileCache<>(10, 3, (column, row) -> column + "," + row);
+        cache.get(0, 0);
+        cache.get(1, 0);
+        cache.get(2, 0);
+        cache.get(0, 0); // now (1, 0) is the least recently used
+        cache.get(3, 0);
+        assertEquals(3, cache.size());
+        
+        long renders = cache.getRenders();
+        cache.get(0, 0);
+        cache.get(2, 0);
+        assertEquals(renders, cache.getRenders());
+        cache.get(1, 0);
+        assertEquals(renders + 1, cache.getRenders());
+    }
+    
+    @Test
+    void invalidateRendersAgain() {
+        int[] version = {0};
+        TileCache<String> cache = new TileCache<>(10, 10, (column, row) -> column + "," + row + " v" + version[0]);
+        assertEquals("-1,5 v0", cache.get(-1, 5));
+        version[0]++;
+        assertEquals("-1,5 v0", cache.get(-1, 5));
+        cache.invalidate();
+        assertEquals(0, cache.size());
+        assertEquals("-1,5 v1", cache.get(-1, 5));
+    }
+    
+    @Test
+    void negativeCoordinatesDontCollide() {
+        TileCache<String> cache = new TileCache<>(10, 10, (column, row) -> column + "," + row);
+        assertAll(
+                () -> assertEquals("-1,-1", cache.get(-1, -1)),
+                () -> assertEquals("0,-1", cache.get(0, -1)),
+                () -> assertEquals("-1,0", cache.get(-1, 0)),
+                () -> assertEquals("0,0", cache.get(0, 0))
+        );
+    }
+    
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package ca.keal.raomk.ranch;
+
+import javax.imageio.ImageIO;
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Packs every PNG under the assets directory into one atlas image, along with copies of them scaled to the sizes
+ * they're drawn at (see {@link SpriteSizes}). Writes atlas.png and atlas.properties, an index of where each one is:
+ * {@code cow/normal=x,y,width,height} for an asset, or {@code cow/normal@40x32=...} for a scaled copy. Run by the
+ * packAtlas build task; in this package for {@link SpriteCache#resample}, so the copies are scaled the same as the
+ * game would.
+ */
+public final class AtlasPacker {
+    
+    private AtlasPacker() {}
+    
+    /** Usage: AtlasPacker assetsDirectory outputDirectory */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: AtlasPacker <assets directory> <output directory>");
+            System.exit(1);
+        }
+        Path assets = Paths.get(args[0]);
+        Path output = Paths.get(args[1]);
+        
+        List<Entry> entries = new ArrayList<>();
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(assets)) {
+            files = walk.filter(file -> file.toString().endsWith(".png")).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = assets.relativize(file).toString().replace('\\', '/');
+            name = name.substring(0, name.length() - ".png".length());
+            BufferedImage image = ImageIO.read(file.toFile());
+            entries.add(new Entry(name, image));
+            for (int[] size : SpriteSizes.of(name, image.getWidth(), image.getHeight())) {
+                entries.add(new Entry(name + "@" + size[0] + "x" + size[1], scale(image, size[0], size[1])));
+            }
+        }
+        
+        BufferedImage atlas = pack(entries);
+        Files.createDirectories(output);
+        ImageIO.write(atlas, "png", output.resolve("atlas.png").toFile());
+        try (Writer index = Files.newBufferedWriter(output.resolve("atlas.properties"), StandardCharsets.UTF_8)) {
+            for (Entry entry : entries) {
+                index.write(entry.name + "=" + entry.x + "," + entry.y + "," + entry.image.getWidth() + ","
+                        + entry.image.getHeight() + "\n");
+            }
+        }
+        System.out.println("Packed " + entries.size() + " images into a " + atlas.getWidth() + "x" + atlas.getHeight()
+                + " atlas");
+    }
+    
+    private static BufferedImage scale(BufferedImage image, int width, int height) {
+        int[] source = image.getRGB(0, 0, image.getWidth(), image.getHeight(), null, 0, image.getWidth());
+        int[] target = SpriteCache.resample(source, image.getWidth(), image.getHeight(), width, height);
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        scaled.setRGB(0, 0, width, height, target, 0, width);
+        return scaled;
+    }
+    
+    // Shelves: tallest first, left to right, starting a new row when one is full. The atlas is as wide as the square
+    // the images would make, rounded up to a power of two.
+    private static BufferedImage pack(List<Entry> entries) {
+        long area = 0;
+        int widest = 1;
+        for (Entry entry : entries) {
+            area += (long) entry.image.getWidth() * entry.image.getHeight();
+            widest = Math.max(widest, entry.image.getWidth());
+        }
+        int width = Integer.highestOneBit(Math.max(widest, (int) Math.ceil(Math.sqrt(area))) * 2 - 1);
+        
+        List<Entry> tallestFirst = new ArrayList<>(entries);
+        tallestFirst.sort(Comparator.comparingInt((Entry entry) -> entry.image.getHeight()).reversed()
+                .thenComparing(entry -> entry.name));
+        int x = 0;
+        int y = 0;
+        int rowHeight = 0;
+        for (Entry entry : tallestFirst) {
+            if (x + entry.image.getWidth() > width) {
+                x = 0;
+                y += rowHeight;
+                rowHeight = 0;
+            }
+            entry.x = x;
+            entry.y = y;
+            x += entry.image.getWidth();
+            rowHeight = Math.max(rowHeight, entry.image.getHeight());
+        }
+        
+        BufferedImage atlas = new BufferedImage(width, Math.max(1, y + rowHeight), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = atlas.createGraphics();
+        graphics.setComposite(AlphaComposite.Src); // copy the pixels exactly
+        for (Entry entry : entries) {
+            graphics.drawImage(entry.image, entry.x, entry.y, null);
+        }
+        graphics.dispose();
+        return atlas;
+    }
+    
+    private static class Entry {
+        
+        private final String name;
+        private final BufferedImage image;
+        private int x;
+        private int y;
+        
+        private Entry(String name, BufferedImage image) {
+            this.name = name;
+            this.image = image;
+        }
+        
+    }
+    
+}
\ No newline at end of file